@@ -0,0 +1,20 @@
+package org.korvin;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+final class BenchmarkExports {
+
+    private static final Path DIRECTORY = Path.of(System.getProperty("discordmd.bench.dir", "build/jmh-exports"));
+
+    private BenchmarkExports() {
+    }
+
+    static Path export(int messageCount) throws IOException {
+        return SyntheticExportGenerator.cached(DIRECTORY, messageCount);
+    }
+
+    static Path output(String name) {
+        return DIRECTORY.resolve("out").resolve(name);
+    }
+}
@@ -0,0 +1,56 @@
+package org.korvin;
+
+import org.korvin.json.DiscordStreamReader;
+import org.korvin.json.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-message cost of the removal-term filter, measured over the contents of the 10k export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterBenchmark {
+
+    private static final int SAMPLE_SIZE = 10_000;
+
+    private final DiscordMdExporter exporter = new DiscordMdExporter();
+    private String[] contents;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        contents = new String[SAMPLE_SIZE];
+        try (DiscordStreamReader reader = DiscordStreamReader.open(BenchmarkExports.export(SAMPLE_SIZE))) {
+            int index = 0;
+            for (Message message = reader.next(); message != null && index < SAMPLE_SIZE; message = reader.next()) {
+                contents[index++] = message.getContent();
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLE_SIZE)
+    public void preprocessString(Blackhole blackhole) {
+        for (String content : contents) {
+            blackhole.consume(exporter.purifyContent(content));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.korvin;
+
+import org.korvin.json.Converter;
+import org.korvin.json.Discord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON decoding cost. The 10M export exceeds the 2 GB String limit, so {@link Converter#fromJsonString} is only
+ * measured up to 1M messages while the streaming reader covers every size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int messages;
+
+    private Path source;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        source = BenchmarkExports.export(messages);
+        json = Files.size(source) < Integer.MAX_VALUE / 2 ? Files.readString(source, StandardCharsets.UTF_8) : null;
+    }
+
+    @Benchmark
+    public Discord fromJsonString() throws IOException {
+        if (json == null) {
+            throw new IllegalStateException("Export with " + messages + " messages does not fit into a String");
+        }
+        return Converter.fromJsonString(json);
+    }
+
+    @Benchmark
+    public Discord readDiscord() throws IOException {
+        return new DiscordMdExporter().readDiscord(source);
+    }
+
+    @Benchmark
+    public MessageStore readMessages() throws IOException {
+        return new DiscordMdExporter().readMessages(source);
+    }
+
+    @Benchmark
+    public MessageStore readMessagesPipelined() throws IOException {
+        return new DiscordMdExporter().readMessages(source, Runtime.getRuntime().availableProcessors());
+    }
+}
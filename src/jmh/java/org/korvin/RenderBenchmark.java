@@ -0,0 +1,91 @@
+package org.korvin;
+
+import org.korvin.json.Discord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering and writing cost for an export that is already in memory. Each trial loads either the {@link Discord}
+ * object graph or the {@link MessageStore}, never both. At 10M messages the graph takes about 14 GB and the
+ * {@link DiscordMdExporter#toMarkdown} document exceeds the maximum String length, so the graph is only measured up
+ * to 1M messages while the store covers every size within the forked heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class RenderBenchmark {
+
+    private final DiscordMdExporter exporter = new DiscordMdExporter();
+
+    @State(Scope.Benchmark)
+    public static class GraphState {
+
+        @Param({"10000", "1000000"})
+        public int messages;
+
+        private Discord discord;
+        private Path destination;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            discord = new DiscordMdExporter().readDiscord(BenchmarkExports.export(messages));
+            destination = BenchmarkExports.output("synthetic-" + messages + ".md");
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class StoreState {
+
+        @Param({"10000", "1000000", "10000000"})
+        public int messages;
+
+        private MessageStore store;
+        private Path destination;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            store = new DiscordMdExporter().readMessages(BenchmarkExports.export(messages));
+            destination = BenchmarkExports.output("synthetic-" + messages + ".md");
+        }
+    }
+
+    @Benchmark
+    public String toMarkdown(GraphState state) {
+        return exporter.toMarkdown(state.discord);
+    }
+
+    @Benchmark
+    public Path writeMarkdown(GraphState state) throws IOException {
+        exporter.writeMarkdown(state.discord, state.destination);
+        return state.destination;
+    }
+
+    @Benchmark
+    public Path writeMarkdownFromStore(StoreState state) throws IOException {
+        exporter.writeMarkdown(state.store, state.destination);
+        return state.destination;
+    }
+
+    @Benchmark
+    public Path writeMarkdownFromStoreParallel(StoreState state) throws IOException {
+        exporter.writeMarkdown(state.store, state.destination, Runtime.getRuntime().availableProcessors());
+        return state.destination;
+    }
+}
@@ -0,0 +1,198 @@
+package org.korvin;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+
+/**
+ * Writes deterministic Discord exports shaped like {@code src/main/resources/Discord.json}. The same message count
+ * always produces the same bytes, so benchmark inputs are reproducible across machines and releases.
+ */
+public final class SyntheticExportGenerator {
+
+    private static final long FIRST_SNOWFLAKE = 1_100_000_000_000_000_000L;
+    private static final long FIRST_EPOCH_MILLI = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSxxx")
+            .withZone(ZoneOffset.ofHours(1));
+    private static final String[] USERS = {"neo", "marlen", "alex", "kira", "tomasz", "yuki", "sam", "ivan", "lea",
+            "omar", "sofia", "jun"};
+    private static final String[] NOISE = {"lol", "ok", "thanks!", "lol yeah", "sounds good", "👍", ":)", "gg",
+            "no worries", "yeah i feel that", "nice", "idk"};
+    private static final String[] WORDS = {"model", "training", "loss", "dataset", "upscale", "checkpoint", "config",
+            "discriminator", "kernel", "resize", "artifact", "batch", "gradient", "learning", "rate", "epoch", "the",
+            "with", "when", "maybe", "try", "lower", "higher", "because", "output", "input", "validation", "sharp",
+            "blurry", "noise", "pretrained", "weights", "gpu", "memory", "schedule", "warmup", "pipeline"};
+    private static final String[] EXTENSIONS = {".png", ".txt", ".log", ".json", ".jpg", ".yml"};
+
+    private SyntheticExportGenerator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: SyntheticExportGenerator <destination-json> <message-count>");
+            return;
+        }
+        write(Path.of(args[0]), Integer.parseInt(args[1]));
+    }
+
+    /**
+     * Returns a cached export for the given message count, generating it on first use.
+     */
+    public static Path cached(Path directory, int messageCount) throws IOException {
+        Path target = directory.resolve("synthetic-" + messageCount + ".json");
+        if (Files.isRegularFile(target)) {
+            return target;
+        }
+        Files.createDirectories(directory);
+        Path partial = directory.resolve(target.getFileName() + ".part");
+        write(partial, messageCount);
+        return Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static void write(Path destination, int messageCount) throws IOException {
+        SplittableRandom random = new SplittableRandom(messageCount);
+        try (JsonGenerator json = new JsonFactory().createGenerator(destination.toFile(), JsonEncoding.UTF8)) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("guild");
+            json.writeStringField("id", "1000000000000000001");
+            json.writeStringField("name", "Synthetic Guild");
+            json.writeStringField("iconUrl", "https://cdn.example.invalid/icons/guild.png");
+            json.writeEndObject();
+            json.writeObjectFieldStart("channel");
+            json.writeStringField("id", "1000000000000000002");
+            json.writeStringField("type", "GuildTextChat");
+            json.writeStringField("categoryId", "1000000000000000003");
+            json.writeStringField("category", "Research");
+            json.writeStringField("name", "synthetic");
+            json.writeStringField("topic", "Generated benchmark channel");
+            json.writeEndObject();
+            json.writeObjectFieldStart("dateRange");
+            json.writeNullField("after");
+            json.writeNullField("before");
+            json.writeEndObject();
+            json.writeStringField("exportedAt", TIMESTAMP.format(Instant.ofEpochMilli(FIRST_EPOCH_MILLI)));
+            json.writeArrayFieldStart("messages");
+            long epochMilli = FIRST_EPOCH_MILLI;
+            for (int i = 0; i < messageCount; i++) {
+                epochMilli += 1_000 + random.nextInt(120_000);
+                writeMessage(json, random, i, epochMilli);
+            }
+            json.writeEndArray();
+            json.writeNumberField("messageCount", messageCount);
+            json.writeEndObject();
+        }
+    }
+
+    private static void writeMessage(JsonGenerator json, SplittableRandom random, int index, long epochMilli)
+            throws IOException {
+        String timestamp = TIMESTAMP.format(Instant.ofEpochMilli(epochMilli));
+        json.writeStartObject();
+        json.writeStringField("id", Long.toString(snowflake(index)));
+        json.writeStringField("type", "Default");
+        json.writeStringField("timestamp", timestamp);
+        json.writeNullField("timestampEdited");
+        json.writeNullField("callEndedTimestamp");
+        json.writeBooleanField("isPinned", false);
+        json.writeStringField("content", content(random));
+        writeUser(json, "author", random.nextInt(USERS.length), random.nextInt(20) == 0);
+        json.writeArrayFieldStart("attachments");
+        if (random.nextInt(10) == 0) {
+            json.writeStartObject();
+            json.writeStringField("id", Long.toString(snowflake(index) + 1));
+            String fileName = "file" + index + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+            json.writeStringField("url", "https://cdn.example.invalid/attachments/" + fileName);
+            json.writeStringField("fileName", fileName);
+            json.writeNumberField("fileSizeBytes", random.nextLong(10_000_000L));
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("embeds");
+        json.writeEndArray();
+        json.writeArrayFieldStart("stickers");
+        json.writeEndArray();
+        json.writeArrayFieldStart("reactions");
+        if (random.nextInt(5) == 0) {
+            json.writeStartObject();
+            json.writeObjectFieldStart("emoji");
+            json.writeStringField("id", "");
+            json.writeStringField("name", "👍");
+            json.writeStringField("code", "thumbsup");
+            json.writeBooleanField("isAnimated", false);
+            json.writeStringField("imageUrl", "https://cdn.example.invalid/emoji/1f44d.svg");
+            json.writeEndObject();
+            int count = 1 + random.nextInt(4);
+            json.writeNumberField("count", count);
+            json.writeArrayFieldStart("users");
+            for (int user = 0; user < count; user++) {
+                writeUser(json, null, random.nextInt(USERS.length), false);
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        json.writeArrayFieldStart("mentions");
+        json.writeEndArray();
+        json.writeArrayFieldStart("inlineEmojis");
+        json.writeEndArray();
+        if (index > 0 && random.nextInt(7) == 0) {
+            json.writeObjectFieldStart("reference");
+            json.writeStringField("messageId", Long.toString(snowflake(index - 1 - random.nextInt(Math.min(index, 50)))));
+            json.writeStringField("channelId", "1000000000000000002");
+            json.writeStringField("guildId", "1000000000000000001");
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeUser(JsonGenerator json, String field, int user, boolean bot) throws IOException {
+        if (field == null) {
+            json.writeStartObject();
+        } else {
+            json.writeObjectFieldStart(field);
+        }
+        json.writeStringField("id", Long.toString(FIRST_SNOWFLAKE - 1_000 - user));
+        json.writeStringField("name", USERS[user]);
+        json.writeStringField("discriminator", "0000");
+        json.writeStringField("nickname", USERS[user].toUpperCase());
+        json.writeStringField("color", "#A0A0A0");
+        json.writeBooleanField("isBot", bot);
+        json.writeArrayFieldStart("roles");
+        json.writeStartObject();
+        json.writeStringField("id", "1000000000000000010");
+        json.writeStringField("name", "member");
+        json.writeStringField("color", "#A0A0A0");
+        json.writeNumberField("position", 1);
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeStringField("avatarUrl", "https://cdn.example.invalid/avatars/" + user + ".png");
+        json.writeEndObject();
+    }
+
+    private static String content(SplittableRandom random) {
+        StringBuilder builder = new StringBuilder();
+        if (random.nextInt(3) == 0) {
+            builder.append(NOISE[random.nextInt(NOISE.length)]).append(' ');
+        }
+        int words = random.nextInt(40);
+        for (int i = 0; i < words; i++) {
+            builder.append(WORDS[random.nextInt(WORDS.length)]).append(i % 12 == 11 ? '\n' : ' ');
+        }
+        if (random.nextInt(4) == 0) {
+            builder.append(NOISE[random.nextInt(NOISE.length)]);
+        }
+        return builder.toString();
+    }
+
+    private static long snowflake(int index) {
+        return FIRST_SNOWFLAKE + ((long) index << 22);
+    }
+}
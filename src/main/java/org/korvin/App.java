@@ -1,17 +1,19 @@
 package org.korvin;
 
 import org.korvin.json.Discord;
-import org.korvin.json.Message;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
 
 public final class App {
     private static final int EXPECTED_ARGUMENT_COUNT = 2;
+    private static final int MAX_ARGUMENT_COUNT = 3;
 
     private App() {
     }
@@ -24,50 +26,145 @@ public final class App {
         }
 
         DiscordMdExporter exporter = new DiscordMdExporter();
+        if (cliArguments.replyIndex() != null) {
+            try {
+                exporter = new DiscordMdExporter(RenderOptions.DEFAULT, replyIndex(exporter, cliArguments));
+            } catch (IOException exception) {
+                System.err.printf("%s%n", exception.getMessage());
+                System.exit(1);
+            }
+        }
+        if (Files.isDirectory(cliArguments.source()) && !cliArguments.merge()) {
+            convertDirectory(exporter, cliArguments);
+            return;
+        }
+
+        try {
+            MessageStore store = cliArguments.merge()
+                    ? exporter.mergeMessages(BatchConverter.findExports(cliArguments.source()))
+                    : exporter.readMessages(cliArguments.source(), cliArguments.threads());
+            describe(store);
+            if (cliArguments.split().equals(SplitPolicy.NONE)) {
+                if (cliArguments.append()) {
+                    exporter.appendMarkdown(store, cliArguments.destination());
+                } else {
+                    exporter.writeMarkdown(store, cliArguments.destination(), cliArguments.threads());
+                }
+                System.out.printf("Markdown report written to %s%n", cliArguments.destination().toAbsolutePath());
+            } else {
+                List<Path> files = cliArguments.append()
+                        ? exporter.appendMarkdown(store, cliArguments.destination(), cliArguments.split())
+                        : exporter.writeMarkdown(store, cliArguments.destination(), cliArguments.split());
+                System.out.printf("Markdown report written to %d files in %s%n", files.size(),
+                        cliArguments.destination().toAbsolutePath());
+            }
+        } catch (IOException | IllegalArgumentException exception) {
+            System.err.printf("%s%n", exception.getMessage());
+            System.exit(1);
+        }
+    }
 
+    private static void convertDirectory(DiscordMdExporter exporter, CliArguments cliArguments) {
         try {
-            Discord discord = exporter.readDiscord(cliArguments.source());
-            describe(discord);
-            exporter.writeMarkdown(discord, cliArguments.destination());
-            System.out.printf("Markdown report written to %s%n", cliArguments.destination().toAbsolutePath());
+            BatchConverter.Summary summary = new BatchConverter(exporter, cliArguments.threads(), cliArguments.split(),
+                    cliArguments.append())
+                    .convert(cliArguments.source(), cliArguments.destination());
+            summary.failures().forEach(failure -> System.err.printf("FAILED %s: %s%n",
+                    failure.source(), failure.failure()));
+            System.out.printf("Converted %d of %d exports into %s%n", summary.succeeded(), summary.results().size(),
+                    cliArguments.destination().toAbsolutePath());
+            if (!summary.failures().isEmpty()) {
+                System.exit(1);
+            }
         } catch (IOException exception) {
             System.err.printf("%s%n", exception.getMessage());
             System.exit(1);
         }
     }
 
-    private static void describe(Discord discord) {
-        Objects.requireNonNull(discord, "discord");
+    /**
+     * Rebuilds the index from the exports when a directory is converted, and uses the existing index for a single
+     * export.
+     */
+    private static ExcerptIndex replyIndex(DiscordMdExporter exporter, CliArguments cliArguments) throws IOException {
+        if (!Files.isDirectory(cliArguments.source())) {
+            return ExcerptIndex.load(cliArguments.replyIndex());
+        }
+        ExcerptIndex index = exporter.writeExcerptIndex(BatchConverter.findExports(cliArguments.source()),
+                cliArguments.replyIndex());
+        System.out.printf("Reply index with %d quotes written to %s%n", index.size(),
+                cliArguments.replyIndex().toAbsolutePath());
+        return index;
+    }
+
+    private static void describe(MessageStore store) {
+        Objects.requireNonNull(store, "store");
+        Discord discord = store.header();
         System.out.println("Parsed Discord export");
         System.out.printf("Guild: %s%n", Optional.ofNullable(discord.getGuild()).map(guild -> guild.getName()).orElse("<unknown>"));
         System.out.printf("Channel: %s%n", Optional.ofNullable(discord.getChannel()).map(channel -> channel.getName()).orElse("<unknown>"));
-        System.out.printf("Messages: %d%n", Optional.ofNullable(discord.getMessages()).map(messages -> messages.length).orElse(0));
+        System.out.printf("Messages: %d%n", store.parsedMessages());
 
-        Message[] messages = Optional.ofNullable(discord.getMessages()).orElse(new Message[0]);
-        if (messages.length == 0) {
+        if (store.parsedMessages() == 0) {
             System.out.println("No messages found.");
             return;
         }
 
         System.out.println("\nMessages:");
-        Arrays.stream(messages)
-                .filter(Objects::nonNull)
-                .forEach(App::printMessageSummary);
+        for (int position = 0; position < store.size(); position++) {
+            printMessageSummary(store, store.row(position));
+        }
     }
 
-    private static void printMessageSummary(Message message) {
-        String id = Optional.ofNullable(message.getID()).orElse("<no id>");
-        String content = Optional.ofNullable(message.getContent()).map(String::trim).filter(value -> !value.isEmpty()).orElse("(no content)");
+    private static void printMessageSummary(MessageStore store, int row) {
+        String id = Optional.ofNullable(store.ids().id(store.id(row))).orElse("<no id>");
+        String content = Optional.of(store.content(row)).map(String::trim).filter(value -> !value.isEmpty()).orElse("(no content)");
         //System.out.printf("- %s | %s%n", id, content);
     }
 
     private static void printUsage() {
-        System.out.println("Usage: java -jar discordmd.jar <source-json> <destination-markdown>");
+        System.out.println("Usage: java -jar discordmd.jar [options] <source-json> <destination-markdown> [threads]");
+        System.out.println("       java -jar discordmd.jar [options] <source-directory> <destination-directory> [threads]");
+        System.out.println("       java -jar discordmd.jar --merge [options] <channel-export-directory> <destination-markdown>");
+        System.out.println("       --merge   combine overlapping exports of one channel into one timeline without duplicates");
+        System.out.println("       --append  render only messages newer than the previous run (state kept in <destination>.state)");
+        System.out.println("       --reply-index=<file" + ExcerptIndex.EXTENSION + ">  quote replies across exports; built from a source directory");
+        System.out.println("Split options (the destination becomes a directory of files per channel and slice):");
+        System.out.println("       --split=day|week|month  --max-size=<bytes>  --max-messages=<count>");
     }
 
-    private record CliArguments(Path source, Path destination) {
-        private static CliArguments parse(String[] args) {
-            if (args.length != EXPECTED_ARGUMENT_COUNT) {
+    private record CliArguments(Path source, Path destination, int threads, SplitPolicy split, boolean append,
+                                Path replyIndex, boolean merge) {
+        private static CliArguments parse(String[] arguments) {
+            List<String> positional = new ArrayList<>();
+            SplitPolicy split = SplitPolicy.NONE;
+            boolean append = false;
+            Path replyIndex = null;
+            boolean merge = false;
+            for (String argument : arguments) {
+                if (!argument.startsWith("--")) {
+                    positional.add(argument);
+                    continue;
+                }
+                if (argument.equals("--append")) {
+                    append = true;
+                    continue;
+                }
+                if (argument.equals("--merge")) {
+                    merge = true;
+                    continue;
+                }
+                if (argument.startsWith("--reply-index=")) {
+                    replyIndex = Path.of(argument.substring("--reply-index=".length()));
+                    continue;
+                }
+                split = parseSplitOption(split, argument);
+                if (split == null) {
+                    return null;
+                }
+            }
+            String[] args = positional.toArray(String[]::new);
+            if (args.length < EXPECTED_ARGUMENT_COUNT || args.length > MAX_ARGUMENT_COUNT) {
                 return null;
             }
 
@@ -78,7 +175,41 @@ public final class App {
             }
 
             Path destination = Path.of(args[1]);
-            return new CliArguments(source, destination);
+            int threads = Runtime.getRuntime().availableProcessors();
+            if (args.length == MAX_ARGUMENT_COUNT) {
+                try {
+                    threads = Integer.parseInt(args[2]);
+                } catch (NumberFormatException exception) {
+                    System.err.printf("Thread count %s is not a number.%n", args[2]);
+                    return null;
+                }
+                if (threads < 1) {
+                    System.err.printf("Thread count must be positive, got %d.%n", threads);
+                    return null;
+                }
+            }
+            return new CliArguments(source, destination, threads, split, append, replyIndex, merge);
+        }
+
+        private static SplitPolicy parseSplitOption(SplitPolicy split, String option) {
+            int separator = option.indexOf('=');
+            String name = separator < 0 ? option : option.substring(0, separator);
+            String value = separator < 0 ? "" : option.substring(separator + 1);
+            try {
+                return switch (name) {
+                    case "--split" -> new SplitPolicy(SplitPolicy.Period.valueOf(value.toUpperCase(Locale.ROOT)),
+                            split.maxBytes(), split.maxMessages());
+                    case "--max-size" -> new SplitPolicy(split.period(), Long.parseLong(value), split.maxMessages());
+                    case "--max-messages" -> new SplitPolicy(split.period(), split.maxBytes(), Integer.parseInt(value));
+                    default -> {
+                        System.err.printf("Unknown option %s.%n", option);
+                        yield null;
+                    }
+                };
+            } catch (IllegalArgumentException exception) {
+                System.err.printf("Invalid value in %s.%n", option);
+                return null;
+            }
         }
     }
 }
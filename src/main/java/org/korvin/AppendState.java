@@ -0,0 +1,188 @@
+package org.korvin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * What an incremental markdown run needs to know about the previous one: the file it last wrote (with the byte
+ * length of its front matter and header, so the fixed-width dates can be patched in place), the newest rendered
+ * message, and quote excerpts of the most recent {@value #MAX_EXCERPTS} messages for replies to messages that are no
+ * longer part of the export. Like {@link FrequencyIndex}, a missing or unreadable state just means a full render.
+ */
+final class AppendState {
+
+    static final int MAX_EXCERPTS = 100_000;
+    private static final String EXTENSION = ".state";
+    private static final int MAGIC = 0x444D4153;
+    private static final int VERSION = 1;
+
+    private final boolean resumed;
+    private final Set<String> idsAtLast = new HashSet<>();
+    private final Map<String, String> excerpts = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > MAX_EXCERPTS;
+        }
+    };
+    private long lastMillis = Long.MIN_VALUE;
+    private Tail tail;
+
+    AppendState() {
+        this(false);
+    }
+
+    private AppendState(boolean resumed) {
+        this.resumed = resumed;
+    }
+
+    /**
+     * @return the state file kept next to a destination file or directory
+     */
+    static Path fileFor(Path destination) {
+        return destination.resolveSibling(destination.getFileName() + EXTENSION);
+    }
+
+    /**
+     * @return the state, or empty when the file is missing, from another version, truncated or corrupt
+     */
+    static Optional<AppendState> load(Path stateFile) {
+        AppendState state = new AppendState(true);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return Optional.empty();
+            }
+            state.tail = new Tail(in.readUTF(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                    in.readLong(), in.readInt(), in.readUTF(), in.readUTF(), in.readUTF());
+            if (!state.tail.isPlausible()) {
+                return Optional.empty();
+            }
+            state.lastMillis = in.readLong();
+            for (int i = in.readInt(); i > 0; i--) {
+                state.idsAtLast.add(in.readUTF());
+            }
+            for (int i = in.readInt(); i > 0; i--) {
+                state.excerpts.put(in.readUTF(), in.readUTF());
+            }
+        } catch (IOException | RuntimeException missingOrUnreadable) {
+            // rendered in full again
+            return Optional.empty();
+        }
+        return Optional.of(state);
+    }
+
+    /**
+     * Writes to a sibling temporary file first, so an interrupted run leaves the previous state intact.
+     */
+    void write(Path stateFile) throws IOException {
+        if (tail == null) {
+            throw new IllegalStateException("Nothing was written yet");
+        }
+        Path partial = stateFile.resolveSibling(stateFile.getFileName() + ".part");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(tail.file());
+            out.writeLong(tail.headBytes());
+            out.writeLong(tail.sliceKey());
+            out.writeLong(tail.first());
+            out.writeLong(tail.last());
+            out.writeLong(tail.bodyBytes());
+            out.writeInt(tail.messages());
+            out.writeUTF(tail.conversationFrom());
+            out.writeUTF(tail.conversationTo());
+            out.writeUTF(tail.timezone());
+            out.writeLong(lastMillis);
+            out.writeInt(idsAtLast.size());
+            for (String id : idsAtLast) {
+                out.writeUTF(id);
+            }
+            out.writeInt(excerpts.size());
+            for (Map.Entry<String, String> excerpt : excerpts.entrySet()) {
+                out.writeUTF(excerpt.getKey());
+                out.writeUTF(excerpt.getValue());
+            }
+        }
+        Files.move(partial, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * A message is new when it is later than the newest one seen before, or as late but with another id. Messages
+     * with unparseable timestamps cannot be placed and are only rendered by the first run.
+     */
+    boolean isNew(long timestamp, String id) {
+        if (!resumed) {
+            return true;
+        }
+        if (timestamp == Timestamps.INVALID) {
+            return false;
+        }
+        long millis = Timestamps.epochMillis(timestamp);
+        return millis > lastMillis || (millis == lastMillis && id != null && !idsAtLast.contains(id));
+    }
+
+    void seen(long timestamp, String id) {
+        if (timestamp == Timestamps.INVALID) {
+            return;
+        }
+        long millis = Timestamps.epochMillis(timestamp);
+        if (millis > lastMillis) {
+            lastMillis = millis;
+            idsAtLast.clear();
+        }
+        if (millis == lastMillis && id != null) {
+            idsAtLast.add(id);
+        }
+    }
+
+    void remember(String id, String excerpt) {
+        if (id != null && !excerpt.isEmpty()) {
+            excerpts.put(id, excerpt);
+        }
+    }
+
+    /**
+     * @return the remembered quote excerpt of a message, or {@code null}
+     */
+    String excerpt(String id) {
+        return id == null ? null : excerpts.get(id);
+    }
+
+    Optional<Tail> tail() {
+        return Optional.ofNullable(tail);
+    }
+
+    void tail(Tail tail) {
+        this.tail = tail;
+    }
+
+    /**
+     * The last file written, relative to the destination directory (or the destination file itself).
+     *
+     * @param headBytes UTF-8 length of the front matter and header
+     * @param sliceKey  {@link SplitPolicy#sliceKey} of the file's first message
+     * @param first     packed timestamp of the first message with a valid timestamp
+     * @param last      packed timestamp of the last message with a valid timestamp
+     */
+    record Tail(String file, long headBytes, long sliceKey, long first, long last, long bodyBytes, int messages,
+                String conversationFrom, String conversationTo, String timezone) {
+
+        /**
+         * A corrupt state must not make the next run write outside the destination directory.
+         */
+        private boolean isPlausible() {
+            return !file.isEmpty() && file.indexOf('/') < 0 && file.indexOf('\\') < 0 && file.indexOf('\0') < 0
+                    && headBytes > 0 && bodyBytes >= 0 && messages >= 0;
+        }
+    }
+}
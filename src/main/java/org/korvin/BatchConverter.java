@@ -0,0 +1,134 @@
+package org.korvin;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Converts every JSON export below a directory on a bounded worker pool, mirroring the directory layout into the
+ * output directory. A failing file is recorded in the summary and does not stop the remaining conversions. With a
+ * split policy, each export becomes a directory of rolling files named after its base name. In append mode every
+ * destination keeps its own state, so repeated batches only add what is new in each export.
+ */
+public final class BatchConverter {
+
+    private static final String SOURCE_EXTENSION = ".json";
+    private static final String TARGET_EXTENSION = ".md";
+
+    private final DiscordMdExporter exporter;
+    private final int parallelism;
+    private final SplitPolicy split;
+    private final boolean append;
+
+    public BatchConverter(DiscordMdExporter exporter, int parallelism) {
+        this(exporter, parallelism, SplitPolicy.NONE);
+    }
+
+    public BatchConverter(DiscordMdExporter exporter, int parallelism, SplitPolicy split) {
+        this(exporter, parallelism, split, false);
+    }
+
+    public BatchConverter(DiscordMdExporter exporter, int parallelism, SplitPolicy split, boolean append) {
+        this.exporter = Objects.requireNonNull(exporter, "exporter");
+        this.split = Objects.requireNonNull(split, "split");
+        this.append = append;
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
+    }
+
+    public Summary convert(Path inputDirectory, Path outputDirectory) throws IOException {
+        Objects.requireNonNull(outputDirectory, "outputDirectory");
+        List<Path> sources = findExports(inputDirectory);
+        List<Future<Result>> pending = new ArrayList<>(sources.size());
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            for (Path source : sources) {
+                Path destination = destinationFor(inputDirectory, outputDirectory, source);
+                pending.add(executor.submit(() -> convertOne(source, destination)));
+            }
+        }
+        List<Result> results = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            results.add(await(pending.get(i), sources.get(i)));
+        }
+        return new Summary(results);
+    }
+
+    static List<Path> findExports(Path directory) throws IOException {
+        Objects.requireNonNull(directory, "directory");
+        if (!Files.isDirectory(directory)) {
+            throw new IOException("Provided path is not a directory: " + directory.toAbsolutePath());
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(SOURCE_EXTENSION))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Result convertOne(Path source, Path destination) {
+        try {
+            MessageStore store = exporter.readMessages(source);
+            if (split.equals(SplitPolicy.NONE)) {
+                if (append) {
+                    exporter.appendMarkdown(store, destination);
+                } else {
+                    exporter.writeMarkdown(store, destination);
+                }
+            } else if (append) {
+                exporter.appendMarkdown(store, destination, split);
+            } else {
+                exporter.writeMarkdown(store, destination, split);
+            }
+            return new Result(source, destination, null);
+        } catch (IOException | RuntimeException exception) {
+            return new Result(source, destination, exception);
+        }
+    }
+
+    private static Result await(Future<Result> future, Path source) {
+        try {
+            return future.get();
+        } catch (ExecutionException exception) {
+            return new Result(source, null, exception.getCause());
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return new Result(source, null, exception);
+        }
+    }
+
+    private Path destinationFor(Path inputDirectory, Path outputDirectory, Path source) {
+        Path relative = inputDirectory.relativize(source);
+        String fileName = relative.getFileName().toString();
+        String baseName = fileName.substring(0, fileName.length() - SOURCE_EXTENSION.length());
+        return outputDirectory.resolve(relative)
+                .resolveSibling(split.equals(SplitPolicy.NONE) ? baseName + TARGET_EXTENSION : baseName);
+    }
+
+    public record Result(Path source, Path destination, Throwable failure) {
+        public boolean succeeded() {
+            return failure == null;
+        }
+    }
+
+    public record Summary(List<Result> results) {
+        public long succeeded() {
+            return results.stream().filter(Result::succeeded).count();
+        }
+
+        public List<Result> failures() {
+            return results.stream().filter(result -> !result.succeeded()).toList();
+        }
+    }
+}
@@ -2,33 +2,61 @@ package org.korvin;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import org.apache.commons.lang3.StringUtils;
+import org.korvin.collect.LongHashSet;
 import org.korvin.json.Attachment;
 import org.korvin.json.Channel;
-import org.korvin.json.Converter;
+import org.korvin.json.ContentScanner;
+import org.korvin.json.DateRange;
 import org.korvin.json.Discord;
+import org.korvin.json.DiscordStreamReader;
 import org.korvin.json.Message;
 import org.korvin.json.MessageAuthor;
+import org.korvin.json.MessageField;
 import org.korvin.json.Reaction;
 import org.korvin.json.Reference;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.regex.Pattern;
 
@@ -37,55 +65,783 @@ import java.util.regex.Pattern;
  */
 public final class DiscordMdExporter {
 
+    private static final int FLUSH_THRESHOLD = 16 * 1024;
+    private static final int RENDER_CHUNK = 2048;
+    private static final int INGEST_BATCH = 512;
+    private static final Future<List<Ingested>> END_OF_EXPORT = CompletableFuture.completedFuture(List.of());
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    private static final String SIZE_UNITS = "KMGTPE";
     private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-    private static final List<String> REMOVAL_TERMS = loadRemovalTerms("/filter.txt");
-    private static final List<String> ANSWERS_TERMS = loadRemovalTerms("/answers.txt");
+    private static final TermMatcher REMOVAL_TERMS = loadTermMatcher("filter");
+    private static final TermMatcher ANSWERS_TERMS = loadTermMatcher("answers");
+
+    private final RenderOptions options;
+    private final ExcerptIndex replyIndex;
+
+    public DiscordMdExporter() {
+        this(RenderOptions.DEFAULT);
+    }
+
+    public DiscordMdExporter(RenderOptions options) {
+        this(options, ExcerptIndex.EMPTY);
+    }
+
+    /**
+     * @param replyIndex quotes reply targets that are not part of the rendered export
+     */
+    public DiscordMdExporter(RenderOptions options, ExcerptIndex replyIndex) {
+        this.options = Objects.requireNonNull(options, "options");
+        this.replyIndex = Objects.requireNonNull(replyIndex, "replyIndex");
+    }
 
     public Discord readDiscord(Path sourcePath) throws IOException {
-        String json = Files.readString(sourcePath, StandardCharsets.UTF_8);
+        try (DiscordStreamReader reader = openDiscord(sourcePath)) {
+            List<Message> messages = new ArrayList<>();
+            reader.forEachMessage(messages::add);
+            Discord discord = reader.header();
+            discord.setMessages(messages.toArray(Message[]::new));
+            return discord;
+        }
+    }
+
+    public DiscordStreamReader openDiscord(Path sourcePath) throws IOException {
+        return openDiscord(sourcePath, MessageField.all());
+    }
+
+    public DiscordStreamReader openDiscord(Path sourcePath, Set<MessageField> fields) throws IOException {
+        try {
+            return DiscordStreamReader.open(sourcePath, fields);
+        } catch (JsonProcessingException parsingException) {
+            throw new IOException("Unable to parse Discord export", parsingException);
+        }
+    }
+
+    /**
+     * @return the number of messages in the export; see {@link ContentScanner#scan}
+     */
+    public long scanContents(Path sourcePath, ContentScanner.ContentConsumer consumer) throws IOException {
         try {
-            return Converter.fromJsonString(json);
+            return ContentScanner.scan(sourcePath, consumer);
         } catch (JsonProcessingException parsingException) {
             throw new IOException("Unable to parse Discord export", parsingException);
         }
     }
 
+    /**
+     * Streams the export straight into a {@link MessageStore}, so no {@link Message} object graph outlives the
+     * message it was parsed from. Only the message properties required by the render options are bound.
+     */
+    public MessageStore readMessages(Path sourcePath) throws IOException {
+        try (DiscordStreamReader reader = openDiscord(sourcePath, options.messageFields())) {
+            MessageStore store = new MessageStore(reader.header());
+            store.parsedMessages(reader.forEachMessage(message -> ingest(store, message)));
+            return store.seal();
+        }
+    }
+
+    /**
+     * Merges exports of one channel, typically taken over overlapping date ranges, into a single store. The exports
+     * are streamed side by side through a k-way merge on (timestamp, id), and a message whose id was already taken
+     * from another export is dropped, so the overlap appears once. Exports that are in order, as exports normally
+     * are, produce an ordered store that needs no sorting; any others are still sorted when the store is sealed.
+     * The merged header spans all date ranges and carries the latest export time.
+     *
+     * @throws IOException when the exports belong to different channels
+     */
+    public MessageStore mergeMessages(List<Path> sourcePaths) throws IOException {
+        if (sourcePaths.isEmpty()) {
+            throw new IllegalArgumentException("No exports to merge");
+        }
+        Discord merged = new Discord();
+        MessageStore store = new MessageStore(merged);
+        List<DiscordStreamReader> readers = new ArrayList<>(sourcePaths.size());
+        try {
+            PriorityQueue<MergeCursor> cursors = new PriorityQueue<>(MergeCursor.ORDER);
+            for (Path sourcePath : sourcePaths) {
+                DiscordStreamReader reader = openDiscord(sourcePath, options.messageFields());
+                readers.add(reader);
+                MergeCursor cursor = new MergeCursor(reader, readers.size());
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+            LongHashSet seen = new LongHashSet();
+            MessageIds ids = store.ids();
+            long parsed = 0;
+            while (!cursors.isEmpty()) {
+                MergeCursor cursor = cursors.poll();
+                Message message = cursor.message;
+                parsed++;
+                if (message.getID() == null || seen.add(ids.key(message.getID()))) {
+                    ingest(store, message);
+                }
+                if (cursor.advance()) {
+                    cursors.add(cursor);
+                }
+            }
+            store.parsedMessages(parsed);
+        } finally {
+            closeAll(readers);
+        }
+        mergeHeaders(merged, readers.stream().map(DiscordStreamReader::header).toList(), sourcePaths);
+        merged.setMessageCount(store.size());
+        return store.seal();
+    }
+
+    private static void mergeHeaders(Discord merged, List<Discord> headers, List<Path> sourcePaths)
+            throws IOException {
+        Discord first = headers.get(0);
+        String channelId = Optional.ofNullable(first.getChannel()).map(Channel::getID).orElse(null);
+        for (int i = 1; i < headers.size(); i++) {
+            String otherId = Optional.ofNullable(headers.get(i).getChannel()).map(Channel::getID).orElse(null);
+            if (!Objects.equals(channelId, otherId)) {
+                throw new IOException("Exports belong to different channels: " + sourcePaths.get(0) + " ("
+                        + channelId + "), " + sourcePaths.get(i) + " (" + otherId + ")");
+            }
+        }
+        merged.setGuild(first.getGuild());
+        merged.setChannel(first.getChannel());
+        DateRange range = new DateRange();
+        range.setAfter(extreme(headers.stream().map(header -> Optional.ofNullable(header.getDateRange())
+                .map(DateRange::getAfter).orElse(null)).toList(), false));
+        range.setBefore(extreme(headers.stream().map(header -> Optional.ofNullable(header.getDateRange())
+                .map(DateRange::getBefore).orElse(null)).toList(), true));
+        merged.setDateRange(range);
+        merged.setExportedAt(extreme(headers.stream().map(Discord::getExportedAt).toList(), true));
+    }
+
+    /**
+     * @return the earliest or latest of the raw timestamps, or {@code null} when any of them is missing or invalid,
+     *         since an open end of one export leaves the merged range open as well
+     */
+    private static String extreme(List<String> rawTimestamps, boolean latest) {
+        String extreme = null;
+        long extremeMillis = 0;
+        for (String raw : rawTimestamps) {
+            long timestamp = Timestamps.parse(raw);
+            if (timestamp == Timestamps.INVALID) {
+                return null;
+            }
+            long millis = Timestamps.epochMillis(timestamp);
+            if (extreme == null || (latest ? millis > extremeMillis : millis < extremeMillis)) {
+                extreme = raw;
+                extremeMillis = millis;
+            }
+        }
+        return extreme;
+    }
+
+    private static void closeAll(List<DiscordStreamReader> readers) throws IOException {
+        IOException failure = null;
+        for (DiscordStreamReader reader : readers) {
+            try {
+                reader.close();
+            } catch (IOException exception) {
+                if (failure == null) {
+                    failure = exception;
+                } else {
+                    failure.addSuppressed(exception);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Builds the reply index shared by all exports of a channel in two streaming passes: the first collects the ids
+     * that replies point at, the second keeps the quote excerpts of just those messages.
+     */
+    public ExcerptIndex writeExcerptIndex(Collection<Path> exports, Path indexFile) throws IOException {
+        LongHashSet referenced = new LongHashSet();
+        for (Path export : exports) {
+            try (DiscordStreamReader reader = openDiscord(export, EnumSet.of(MessageField.REFERENCE))) {
+                reader.forEachMessage(message -> Optional.ofNullable(message.getReference())
+                        .map(Reference::getMessageID)
+                        .ifPresent(id -> referenced.add(ExcerptIndex.key(id))));
+            }
+        }
+        Map<Long, String> excerpts = new HashMap<>();
+        for (Path export : exports) {
+            try (DiscordStreamReader reader = openDiscord(export,
+                    EnumSet.of(MessageField.ID, MessageField.CONTENT, MessageField.AUTHOR))) {
+                reader.forEachMessage(message -> {
+                    if (message.getID() == null || isBot(message)) {
+                        return;
+                    }
+                    long key = ExcerptIndex.key(message.getID());
+                    if (referenced.contains(key) && !excerpts.containsKey(key)) {
+                        String excerpt = excerpt(normalizedContent(message));
+                        if (!excerpt.isEmpty()) {
+                            excerpts.put(key, excerpt);
+                        }
+                    }
+                });
+            }
+        }
+        ExcerptIndex.write(excerpts, indexFile);
+        return ExcerptIndex.load(indexFile);
+    }
+
+    /**
+     * Pipelined {@link #readMessages(Path)}: a parser thread hands batches of {@value #INGEST_BATCH} messages to
+     * {@code parallelism} filter workers, and the calling thread adds the filtered rows to the store in export order.
+     * The stages are linked by a bounded queue of pending batches, so a slow stage holds back the parser instead of
+     * letting parsed messages pile up, and JSON decoding overlaps with the term filtering.
+     */
+    public MessageStore readMessages(Path sourcePath, int parallelism) throws IOException {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        if (parallelism == 1) {
+            return readMessages(sourcePath);
+        }
+        try (DiscordStreamReader reader = openDiscord(sourcePath, options.messageFields());
+             ExecutorService workers = Executors.newFixedThreadPool(parallelism + 1)) {
+            MessageStore store = new MessageStore(reader.header());
+            BlockingQueue<Future<List<Ingested>>> batches = new ArrayBlockingQueue<>(parallelism * 2);
+            Future<Long> parser = workers.submit(() -> parse(reader, workers, batches));
+            try {
+                for (Future<List<Ingested>> batch = batches.take(); batch != END_OF_EXPORT; batch = batches.take()) {
+                    for (Ingested row : await(batch, workers)) {
+                        add(store, row);
+                    }
+                }
+            } catch (InterruptedException exception) {
+                cancel(workers, batches);
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while reading messages");
+            } catch (Throwable failure) {
+                cancel(workers, batches);
+                throw failure;
+            }
+            store.parsedMessages(await(parser, workers));
+            return store.seal();
+        }
+    }
+
+    /**
+     * Stops the pipeline when the consuming thread gives up: the parser and filter workers are interrupted, and the
+     * queue is emptied so the parser can still put its end marker and exit instead of blocking the executor's close.
+     */
+    private static void cancel(ExecutorService workers, BlockingQueue<?> batches) {
+        workers.shutdownNow();
+        batches.clear();
+    }
+
+    /**
+     * Parser stage of {@link #readMessages(Path, int)}; always ends the queue, so the consumer sees parse failures.
+     *
+     * @return the number of messages parsed
+     */
+    private long parse(DiscordStreamReader reader, ExecutorService workers,
+                       BlockingQueue<Future<List<Ingested>>> batches) throws IOException, InterruptedException {
+        long parsed = 0;
+        try {
+            List<Message> batch = new ArrayList<>(INGEST_BATCH);
+            for (Message message = reader.next(); message != null; message = reader.next()) {
+                parsed++;
+                batch.add(message);
+                if (batch.size() == INGEST_BATCH) {
+                    List<Message> full = batch;
+                    batches.put(workers.submit(() -> prepareAll(full)));
+                    batch = new ArrayList<>(INGEST_BATCH);
+                }
+            }
+            if (!batch.isEmpty()) {
+                List<Message> last = batch;
+                batches.put(workers.submit(() -> prepareAll(last)));
+            }
+        } finally {
+            batches.put(END_OF_EXPORT);
+        }
+        return parsed;
+    }
+
+    private List<Ingested> prepareAll(List<Message> messages) {
+        List<Ingested> rows = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            Ingested row = prepare(message);
+            if (row != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    public MessageStore toStore(Discord discord) {
+        Objects.requireNonNull(discord, "discord");
+        MessageStore store = new MessageStore(discord);
+        Message[] messages = Optional.ofNullable(discord.getMessages()).orElseGet(() -> new Message[0]);
+        store.parsedMessages(messages.length);
+        Arrays.stream(messages)
+                .filter(Objects::nonNull)
+                .forEach(message -> ingest(store, message));
+        return store.seal();
+    }
+
     public void writeMarkdown(Discord discord, Path destination) throws IOException {
-        String markdown = toMarkdown(discord);
+        writeMarkdown(toStore(discord), destination);
+    }
+
+    public void writeMarkdown(MessageStore store, Path destination) throws IOException {
+        writeMarkdown(store, destination, 1);
+    }
+
+    /**
+     * @param parallelism threads rendering message chunks; see {@link #writeMarkdown(MessageStore, Writer, int)}
+     */
+    public void writeMarkdown(MessageStore store, Path destination, int parallelism) throws IOException {
         Path parent = destination.getParent();
         if (parent != null) {
             Files.createDirectories(parent);
         }
-        Files.writeString(destination, markdown, StandardCharsets.UTF_8);
+        try (Writer writer = Files.newBufferedWriter(destination, StandardCharsets.UTF_8)) {
+            writeMarkdown(store, writer, parallelism);
+        }
     }
 
     public String toMarkdown(Discord discord) {
-        Objects.requireNonNull(discord, "discord");
+        StringWriter writer = new StringWriter();
+        try {
+            writeMarkdown(discord, writer);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return writer.toString();
+    }
 
-        Message[] messages = Optional.ofNullable(discord.getMessages()).orElseGet(() -> new Message[0]);
-        List<Message> sortedMessages = Arrays.stream(messages)
-                .filter(Objects::nonNull)
-                .filter(msg -> !Optional.ofNullable(msg.getAuthor()).orElse(new MessageAuthor()).getIsBot())
-                .sorted(Comparator.comparing(Message::getTimestamp, Comparator.nullsLast(String::compareTo)))
-                .toList();
+    public void writeMarkdown(Discord discord, Writer writer) throws IOException {
+        writeMarkdown(toStore(discord), writer);
+    }
+
+    /**
+     * Renders the store incrementally: each message is appended to a small reusable buffer that is handed to the
+     * writer once it exceeds {@value #FLUSH_THRESHOLD} characters, so output memory does not grow with the document.
+     */
+    public void writeMarkdown(MessageStore store, Writer writer) throws IOException {
+        writeMarkdown(store, writer, 1);
+    }
 
-        Metadata metadata = Metadata.from(discord, sortedMessages);
-        Map<String, String> contentById = buildContentIndex(sortedMessages);
-        Set<String> referencedIds = collectReferencedIds(sortedMessages);
+    /**
+     * Renders chunks of {@value #RENDER_CHUNK} messages on {@code parallelism} threads, each into its own buffer,
+     * and writes the buffers in message order, so the output is identical to the sequential rendering. At most two
+     * chunks per thread are held at a time.
+     */
+    public void writeMarkdown(MessageStore store, Writer writer, int parallelism) throws IOException {
+        Objects.requireNonNull(store, "store");
+        Objects.requireNonNull(writer, "writer");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        store.seal();
 
-        StringBuilder builder = new StringBuilder();
-        appendFrontMatter(builder, metadata);
-        appendHeader(builder, metadata);
-        sortedMessages.forEach(message -> appendMessage(builder, message, contentById, referencedIds));
-        return builder.toString();
+        Metadata metadata = Metadata.from(store.header(), store);
+        if (parallelism == 1 || store.size() <= RENDER_CHUNK) {
+            render(store, writer, metadata, null);
+            return;
+        }
+        StringBuilder head = new StringBuilder();
+        appendFrontMatter(head, metadata);
+        appendHeader(head, metadata);
+        writer.append(head);
+        char[] chunk = new char[FLUSH_THRESHOLD * 2];
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            Deque<Future<StringBuilder>> pending = new ArrayDeque<>();
+            for (int start = 0; start < store.size(); start += RENDER_CHUNK) {
+                int from = start;
+                int to = Math.min(store.size(), start + RENDER_CHUNK);
+                pending.add(executor.submit(() -> renderChunk(store, from, to)));
+                if (pending.size() >= parallelism * 2) {
+                    chunk = flush(await(pending.poll(), executor), writer, chunk);
+                }
+            }
+            while (!pending.isEmpty()) {
+                chunk = flush(await(pending.poll(), executor), writer, chunk);
+            }
+        }
+        writer.flush();
     }
 
-    private Map<String, String> buildContentIndex(List<Message> messages) {
-        Map<String, String> contentById = new HashMap<>();
-        messages.forEach(message -> Optional.ofNullable(message.getID())
-                .filter(id -> !contentById.containsKey(id))
-                .ifPresent(id -> contentById.put(id, normalizedContent(message))));
-        return contentById;
+    private StringBuilder renderChunk(MessageStore store, int from, int to) {
+        StringBuilder builder = new StringBuilder(FLUSH_THRESHOLD * 2);
+        for (int position = from; position < to; position++) {
+            appendMessage(builder, store, store.row(position), null);
+        }
+        return builder;
+    }
+
+    private static <T> T await(Future<T> future, ExecutorService executor) throws IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException exception) {
+            executor.shutdownNow();
+            if (exception.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException("Processing messages failed", exception.getCause());
+        } catch (InterruptedException exception) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while processing messages");
+        }
+    }
+
+    /**
+     * Incremental variant of {@link #writeMarkdown(MessageStore, Path)} for exports that are taken again and again.
+     * A state file next to the destination remembers the newest rendered message; later runs append only messages
+     * after it and patch the date range in the front matter and header. Without a usable state the destination is
+     * rendered in full. Replies to messages that are no longer in the export are quoted from the state.
+     */
+    public void appendMarkdown(MessageStore store, Path destination) throws IOException {
+        Objects.requireNonNull(store, "store");
+        store.seal();
+        Path stateFile = AppendState.fileFor(destination);
+        String fileName = destination.getFileName().toString();
+        Optional<AppendState> previous = AppendState.load(stateFile)
+                .filter(state -> state.tail().filter(tail -> tail.file().equals(fileName)).isPresent())
+                .filter(state -> Files.isRegularFile(destination));
+        Metadata metadata = Metadata.from(store.header(), store);
+        AppendState state;
+        long headBytes;
+        if (previous.isEmpty()) {
+            state = new AppendState();
+            Path parent = destination.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (Writer writer = Files.newBufferedWriter(destination, StandardCharsets.UTF_8)) {
+                render(store, writer, metadata, state);
+            }
+            headBytes = head(metadata).length;
+        } else {
+            state = previous.get();
+            AppendState.Tail tail = state.tail().orElseThrow();
+            long length = Files.size(destination);
+            boolean appended = false;
+            try {
+                try (Writer writer = Files.newBufferedWriter(destination, StandardCharsets.UTF_8,
+                        StandardOpenOption.APPEND)) {
+                    render(store, writer, null, state);
+                }
+                metadata = metadata.continuing(tail);
+                headBytes = replaceHead(destination, tail.headBytes(), head(metadata));
+                appended = true;
+            } finally {
+                if (!appended) {
+                    truncate(destination, length);
+                }
+            }
+        }
+        state.tail(new AppendState.Tail(fileName, headBytes, 0, Timestamps.INVALID, Timestamps.INVALID, 0, 0,
+                metadata.conversationFrom(), metadata.conversationTo(), metadata.timezone()));
+        state.write(stateFile);
+    }
+
+    /**
+     * @param head  metadata for the front matter and header, {@code null} to write messages only
+     * @param state when present, only messages new to it are written and it records what was written
+     */
+    private void render(MessageStore store, Writer writer, Metadata head, AppendState state) throws IOException {
+        StringBuilder builder = new StringBuilder(FLUSH_THRESHOLD * 2);
+        char[] chunk = new char[FLUSH_THRESHOLD * 2];
+        if (head != null) {
+            appendFrontMatter(builder, head);
+            appendHeader(builder, head);
+        }
+        for (int position = 0; position < store.size(); position++) {
+            int row = store.row(position);
+            if (state != null && !record(state, store, row, position)) {
+                continue;
+            }
+            appendMessage(builder, store, row, state);
+            if (builder.length() >= FLUSH_THRESHOLD) {
+                chunk = flush(builder, writer, chunk);
+            }
+        }
+        flush(builder, writer, chunk);
+        writer.flush();
+    }
+
+    /**
+     * Records a message in the append state unless an earlier run already covered it. Quote excerpts are kept for
+     * the last {@value AppendState#MAX_EXCERPTS} messages of the store only, as older ones would be evicted anyway.
+     *
+     * @return whether the message is new
+     */
+    private boolean record(AppendState state, MessageStore store, int row, int position) {
+        String id = store.ids().id(store.id(row));
+        long timestamp = store.timestamp(row);
+        if (!state.isNew(timestamp, id)) {
+            return false;
+        }
+        state.seen(timestamp, id);
+        if (position >= store.size() - AppendState.MAX_EXCERPTS) {
+            state.remember(id, excerpt(store.content(row)));
+        }
+        return true;
+    }
+
+    /**
+     * Rolling output: writes the store as a series of files in {@code outputDirectory}, starting a new file whenever
+     * the split policy says so. Files are named {@code discord__channel-<slug>__<from>__<to>.md} after the local dates
+     * of their first and last message and carry their own front matter and header. Bodies are staged in temporary
+     * files until the date range of a file is known.
+     *
+     * @return the written files in message order
+     */
+    public List<Path> writeMarkdown(MessageStore store, Path outputDirectory, SplitPolicy policy) throws IOException {
+        return writeSlices(store, outputDirectory, policy, null);
+    }
+
+    /**
+     * Incremental rolling output: like {@link #appendMarkdown(MessageStore, Path)}, but new messages continue the
+     * last file of the previous run while the split policy allows and then go to new files. A continued file is
+     * renamed when its date range grows.
+     *
+     * @return the files written or continued by this run, in message order
+     */
+    public List<Path> appendMarkdown(MessageStore store, Path outputDirectory, SplitPolicy policy) throws IOException {
+        Path stateFile = AppendState.fileFor(outputDirectory);
+        AppendState state = AppendState.load(stateFile)
+                .filter(previous -> previous.tail()
+                        .filter(tail -> Files.isRegularFile(outputDirectory.resolve(tail.file())))
+                        .isPresent())
+                .orElseGet(AppendState::new);
+        List<Path> written = writeSlices(store, outputDirectory, policy, state);
+        state.write(stateFile);
+        return written;
+    }
+
+    private List<Path> writeSlices(MessageStore store, Path outputDirectory, SplitPolicy policy, AppendState state)
+            throws IOException {
+        Objects.requireNonNull(store, "store");
+        Objects.requireNonNull(policy, "policy");
+        store.seal();
+        Files.createDirectories(outputDirectory);
+
+        Metadata metadata = Metadata.from(store.header(), store);
+        String prefix = "discord__channel-" + slug(metadata.channel()) + "__";
+        List<Path> written = new ArrayList<>();
+        StringBuilder builder = new StringBuilder(FLUSH_THRESHOLD * 2);
+        char[] chunk = new char[FLUSH_THRESHOLD * 2];
+        Slice slice = null;
+        if (state != null && state.tail().isPresent()) {
+            slice = Slice.resume(outputDirectory, state.tail().get());
+        }
+        try {
+            for (int position = 0; position < store.size(); position++) {
+                int row = store.row(position);
+                if (state != null && !record(state, store, row, position)) {
+                    continue;
+                }
+                int start = builder.length();
+                appendMessage(builder, store, row, state);
+                if (builder.length() == start) {
+                    continue;
+                }
+                long timestamp = store.timestamp(row);
+                long key = policy.sliceKey(timestamp);
+                long messageBytes = utf8Length(builder, start, builder.length());
+                if (slice != null && (slice.startsNewPeriod(key)
+                        || policy.isFull(slice.headLength + slice.bytes, slice.messages, messageBytes))) {
+                    slice.body.write(builder.substring(0, start));
+                    builder.delete(0, start);
+                    written.add(finish(slice, metadata, prefix, outputDirectory, written, state));
+                    slice = null;
+                }
+                if (slice == null) {
+                    slice = Slice.open(outputDirectory);
+                }
+                if (slice.add(key, timestamp, messageBytes) || slice.messages == 1) {
+                    slice.headLength = head(metadata.forRange(slice.first, slice.last)).length;
+                }
+                if (builder.length() >= FLUSH_THRESHOLD) {
+                    chunk = flush(builder, slice.body, chunk);
+                }
+            }
+            if (slice == null) {
+                slice = Slice.open(outputDirectory);
+            }
+            flush(builder, slice.body, chunk);
+            written.add(finish(slice, metadata, prefix, outputDirectory, written, state));
+            slice = null;
+        } finally {
+            if (slice != null) {
+                slice.discard();
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Writes the front matter and header of a slice and moves it to its final name. Further parts of the same date
+     * range get a zero-padded part number, so a sorted listing keeps message order. When appending, files of earlier
+     * runs are never overwritten.
+     */
+    private Path finish(Slice slice, Metadata metadata, String prefix, Path outputDirectory, List<Path> written,
+                        AppendState state) throws IOException {
+        slice.body.close();
+        Metadata sliceMetadata = metadata.forRange(slice.first, slice.last);
+        String name = prefix + fileNameDate(sliceMetadata.conversationFrom()) + "__"
+                + fileNameDate(sliceMetadata.conversationTo());
+        Path target = outputDirectory.resolve(name + ".md");
+        for (int part = 2; written.contains(target)
+                || (state != null && !target.equals(slice.bodyFile) && Files.exists(target)); part++) {
+            target = outputDirectory.resolve(name + "__%03d.md".formatted(part));
+        }
+        byte[] head = head(sliceMetadata);
+        if (slice.isResumed()) {
+            replaceHead(slice.bodyFile, slice.headBytes, head);
+            if (!target.equals(slice.bodyFile)) {
+                Files.move(slice.bodyFile, target);
+            }
+        } else {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(target))) {
+                out.write(head);
+                Files.copy(slice.bodyFile, out);
+            }
+            Files.delete(slice.bodyFile);
+        }
+        if (state != null) {
+            state.tail(new AppendState.Tail(target.getFileName().toString(), head.length, slice.key, slice.first,
+                    slice.last, slice.bytes, slice.messages, sliceMetadata.conversationFrom(),
+                    sliceMetadata.conversationTo(), sliceMetadata.timezone()));
+        }
+        return target;
+    }
+
+    private byte[] head(Metadata metadata) {
+        StringBuilder head = new StringBuilder();
+        appendFrontMatter(head, metadata);
+        appendHeader(head, metadata);
+        return head.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Replaces the first {@code headBytes} bytes of a file. A head of the same length (the usual case, as dates are
+     * fixed-width) is overwritten in place; otherwise the file is rewritten through a temporary copy.
+     *
+     * @return the length of the new head
+     */
+    private static long replaceHead(Path file, long headBytes, byte[] head) throws IOException {
+        if (head.length == headBytes) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(head);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, buffer.position());
+                }
+            }
+            return head.length;
+        }
+        Path partial = Files.createTempFile(file.toAbsolutePath().getParent(), ".head-", ".part");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial));
+                 InputStream in = Files.newInputStream(file)) {
+                out.write(head);
+                in.skipNBytes(headBytes);
+                in.transferTo(out);
+            }
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+        return head.length;
+    }
+
+    private static void truncate(Path file, long length) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+    }
+
+    static String slug(String channel) {
+        StringBuilder slug = new StringBuilder(channel.length());
+        for (int i = 0; i < channel.length(); i++) {
+            char c = Character.toLowerCase(channel.charAt(i));
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                slug.append(c);
+            } else if (!slug.isEmpty() && slug.charAt(slug.length() - 1) != '-') {
+                slug.append('-');
+            }
+        }
+        if (!slug.isEmpty() && slug.charAt(slug.length() - 1) == '-') {
+            slug.setLength(slug.length() - 1);
+        }
+        return slug.isEmpty() ? "unknown" : slug.toString();
+    }
+
+    private static String fileNameDate(String date) {
+        return date.startsWith("<") ? "unknown" : date;
+    }
+
+    private static long utf8Length(CharSequence text, int start, int end) {
+        long bytes = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private static char[] flush(StringBuilder builder, Writer writer, char[] chunk) throws IOException {
+        int length = builder.length();
+        char[] target = chunk.length >= length ? chunk : new char[length];
+        builder.getChars(0, length, target, 0);
+        writer.write(target, 0, length);
+        builder.setLength(0);
+        return target;
+    }
+
+    private void ingest(MessageStore store, Message message) {
+        Ingested row = prepare(message);
+        if (row != null) {
+            add(store, row);
+        }
+    }
+
+    /**
+     * Filters and formats a message without touching the store, so it can run on any thread.
+     *
+     * @return the row to store, or {@code null} for bot messages
+     */
+    private Ingested prepare(Message message) {
+        if (isBot(message)) {
+            return null;
+        }
+        String content = normalizedContent(message);
+        String purified = purifyAnswers(content);
+        boolean hasContent = StringUtils.isNotBlank(purified) && purified.length() > 1;
+        String replyTargetId = Optional.ofNullable(message.getReference())
+                .map(Reference::getMessageID)
+                .orElse(null);
+        return new Ingested(message.getID(), Timestamps.parse(message.getTimestamp()), message.getTimestamp(),
+                sanitizeHeadingValue(resolveAuthorName(message)), replyTargetId, content, hasContent,
+                attachmentsOf(message), options.reactions() ? formatReactions(message.getReactions()) : "");
+    }
+
+    private static void add(MessageStore store, Ingested row) {
+        MessageIds ids = store.ids();
+        long replyTargetId = ids.key(row.replyTargetId());
+        store.add(ids.key(row.id()), row.timestamp(), row.rawTimestamp(), row.author(), replyTargetId, row.content(),
+                row.hasContent(), row.attachments(), row.reactions());
+    }
+
+    private static boolean isBot(Message message) {
+        return Optional.ofNullable(message.getAuthor()).orElse(new MessageAuthor()).getIsBot();
     }
 
     private void appendFrontMatter(StringBuilder builder, Metadata metadata) {
@@ -112,78 +868,76 @@ public final class DiscordMdExporter {
                 .append("\n\n");
     }
 
-    private boolean hasAttachments(Message message) {
-        if (message.getAttachments() == null) return false;
-        long count =  Arrays.stream(message.getAttachments()).filter(
-                this::hasAttachment
-        ).count();
-        return count > 0L;
+    private List<MessageStore.StoredAttachment> attachmentsOf(Message message) {
+        if (message.getAttachments() == null) {
+            return List.of();
+        }
+        return Arrays.stream(message.getAttachments())
+                .filter(this::hasAttachment)
+                .map(attachment -> new MessageStore.StoredAttachment(attachment.getFileName(),
+                        attachment.getFileSizeBytes(), attachment.getURL()))
+                .toList();
     }
 
-    private void appendMessage(StringBuilder builder, Message message, Map<String, String> contentById, Set<String> referencedIds) {
-        String content = normalizedContent(message);
-        String purified = purifyAnswers(content);
-        boolean hasContent = StringUtils.isNotBlank(purified) && purified.length()>1;
-        boolean hasAttachments = hasAttachments(message);
-        boolean isReferenced = referencedIds.contains(message.getID());
-
-        if (!hasContent && !hasAttachments && !isReferenced) {
+    /**
+     * @param state quotes reply targets that are not in the store any more, may be {@code null}; the reply index
+     *              is consulted after it
+     */
+    private void appendMessage(StringBuilder builder, MessageStore store, int row, AppendState state) {
+        boolean hasContent = store.hasContent(row);
+        if (!hasContent && !store.hasAttachments(row) && !store.isReferenced(row)) {
             return;
         }
 
-        List<String> headingParts = new ArrayList<>();
-        String messageId = formatMessageId(message.getID());
-
-        headingParts.add(messageId);
-        headingParts.add("ts=" + formatTimestamp(message.getTimestamp()));
-        headingParts.add("user=" + sanitizeHeadingValue(resolveAuthorName(message)));
-        //resolveAuthorId(message).ifPresent(authorId -> headingParts.add("author_id=" + authorId));
+        MessageIds ids = store.ids();
+        long replyTargetId = store.replyTargetId(row);
+        boolean isReply = replyTargetId != MessageIds.NONE;
 
-        boolean isReply = message.getReference() != null;
-        //headingParts.add("type=" + (isReply ? "reply" : "message"));
-        resolveReplyTarget(message).ifPresent(replyId -> headingParts.add("reply_to=" + replyId));
-        //resolveEditedTimestamp(message).ifPresent(edited -> headingParts.add("edited=" + edited));
-
-        builder.append("### ").append(String.join("|", headingParts)).append("\n");
+        appendMessageId(builder.append("### "), ids.hash(store.id(row)));
+        appendTimestamp(builder.append("|ts="), store.timestamp(row), store.rawTimestamp(row));
+        builder.append("|user=").append(store.author(row));
+        if (isReply) {
+            appendMessageId(builder.append("|reply_to="), ids.hash(replyTargetId));
+        }
+        builder.append("\n");
 
-        String replyTargetId = resolveReplyTarget(message).orElse(null);
-        if (replyTargetId != null) {
-            appendReplyContext(builder, replyTargetId, contentById);
+        if (isReply) {
+            int targetRow = store.replyTargetRow(row);
+            String replyContent = targetRow >= 0 ? store.content(targetRow) : quoteOf(ids.id(replyTargetId), state);
+            appendReplyContext(builder, ids.hash(replyTargetId), replyContent);
         }
 
         if (hasContent) {
-            builder.append(content);
+            store.appendContent(builder, row);
         }
         builder.append("\n");
-        appendAttachments(builder, message.getAttachments());
-        //appendReactions(builder, message.getReactions());
+        appendAttachments(builder, store.attachments(row));
+        appendReactions(builder, store.reactions(row));
         builder.append('\n');
     }
 
-    private void appendReplyContext(StringBuilder builder, String replyId, Map<String, String> contentById) {
-        builder.append("> **Replying to:** ").append(replyId).append("\n");
-        Optional.ofNullable(contentById.get(stripMessagePrefix(replyId)))
-                .map(this::excerpt)
-                .filter(excerpt -> !excerpt.isEmpty())
-                .ifPresent(excerpt -> builder.append("> **Quote:**\" ")
-                        .append(excerpt)
-                        .append("\"\n"));
-        builder.append('\n');
+    private String quoteOf(String id, AppendState state) {
+        String excerpt = state == null ? null : state.excerpt(id);
+        return excerpt != null ? excerpt : replyIndex.excerpt(id);
     }
 
-    private void appendAttachments(StringBuilder builder, Attachment[] attachments) {
-        if (attachments == null || attachments.length == 0) {
-            return;
+    private void appendReplyContext(StringBuilder builder, int replyIdHash, String replyContent) {
+        appendMessageId(builder.append("> **Replying to:** "), replyIdHash).append("\n");
+        String excerpt = replyContent == null ? "" : excerpt(replyContent);
+        if (!excerpt.isEmpty()) {
+            builder.append("> **Quote:**\" ").append(excerpt).append("\"\n");
         }
+        builder.append('\n');
+    }
 
-        for (Attachment attachment : attachments) {
-            if (checkAttachment(attachment)) {
-                continue;
+    private void appendAttachments(StringBuilder builder, List<MessageStore.StoredAttachment> attachments) {
+        for (MessageStore.StoredAttachment attachment : attachments) {
+            String fileName = attachment.fileName();
+            builder.append("- attachment: name=").append(fileName == null ? "<unknown>" : fileName);
+            appendSize(builder.append(" size="), attachment.sizeBytes());
+            if (attachment.url() != null) {
+                builder.append(" url=").append(attachment.url());
             }
-            builder.append("- attachment: name=")
-                    .append(Optional.ofNullable(attachment.getFileName()).orElse("<unknown>"))
-                    .append(" size=").append(humanReadableSize(attachment.getFileSizeBytes()));
-            Optional.ofNullable(attachment.getURL()).ifPresent(url -> builder.append(" url=").append(url));
             builder.append("\n");
         }
     }
@@ -203,21 +957,22 @@ public final class DiscordMdExporter {
         return false;
     }
 
-    private void appendReactions(StringBuilder builder, Reaction[] reactions) {
-        if (reactions == null || reactions.length == 0) {
-            return;
+    private void appendReactions(StringBuilder builder, String reactions) {
+        if (!reactions.isEmpty()) {
+            builder.append("- reactions: ").append(reactions).append("\n");
         }
+    }
 
-        String formatted = Arrays.stream(reactions)
+    private String formatReactions(Reaction[] reactions) {
+        if (reactions == null || reactions.length == 0) {
+            return "";
+        }
+        return Arrays.stream(reactions)
                 .filter(Objects::nonNull)
                 .map(this::formatReaction)
                 .filter(Optional::isPresent)
                 .map(Optional::get)
                 .collect(Collectors.joining(" "));
-
-        if (!formatted.isEmpty()) {
-            builder.append("- reactions: ").append(formatted).append("\n");
-        }
     }
 
     private Optional<String> formatReaction(Reaction reaction) {
@@ -248,12 +1003,6 @@ public final class DiscordMdExporter {
                 .map(id -> "u:" + id);
     }
 
-    private Optional<String> resolveReplyTarget(Message message) {
-        return Optional.ofNullable(message.getReference())
-                .map(Reference::getMessageID)
-                .map(this::formatMessageId);
-    }
-
     private Optional<String> resolveEditedTimestamp(Message message) {
         return Optional.ofNullable(message.getTimestampEdited())
                 .map(this::formatTimestamp);
@@ -271,70 +1020,55 @@ public final class DiscordMdExporter {
     final static Pattern PTR_TABL = Pattern.compile("\n{3,}");
 
 
-    private String purifyContent(String content) {
+    String purifyContent(String content) {
         return preprocessString(content, REMOVAL_TERMS);
     }
     private String purifyAnswers(String content) {
         return preprocessString(content, ANSWERS_TERMS);
     }
 
-    private String preprocessString(String content, List<String> terms) {
-        String cleaned = content;
-        for (String term : terms) {
-            if (term.isEmpty()) {
-                continue;
-            }
-            cleaned = cleaned.replaceAll("(?i)" + removalPattern(term), "");
-            //cleaned = org.korvin.StringUtils.replace(cleaned, term, EMPTY);
-        }
+    private String preprocessString(String content, TermMatcher terms) {
+        String cleaned = terms.removeAll(content);
         cleaned = PTR_DBL_SPACE.matcher(cleaned).replaceAll(" ");
         cleaned = PTR_EMPTY.matcher(cleaned).replaceAll("");
         cleaned = PTR_TABL.matcher(cleaned).replaceAll("\n\n");
         return cleaned.strip();
     }
 
-    private String removalPattern(String term) {
-        String escaped = Pattern.quote(term);
-        boolean startsWithWord = Character.isLetterOrDigit(term.codePointAt(0));
-        boolean endsWithWord = Character.isLetterOrDigit(term.codePointBefore(term.length()));
-
-        if (startsWithWord) {
-            escaped = "\\b" + escaped;
-        }
-        if (endsWithWord) {
-            escaped = escaped + "\\b";
-        }
-        return escaped;
-    }
-
     private String formatTimestamp(String rawTimestamp) {
-        return parseTimestamp(rawTimestamp)
-                .map(DATE_TIME_FORMATTER::format)
-                .orElse(rawTimestamp);
-    }
-
-    private String formatMessageId(String rawId) {
-        return "m:" + shortId(Optional.ofNullable(rawId).orElse("unknown"));
+        return formatTimestamp(Timestamps.parse(rawTimestamp), rawTimestamp);
     }
 
-    private String shortId(String x) {
-        return Integer.toHexString(x.hashCode());
+    private static String formatTimestamp(long timestamp, String rawTimestamp) {
+        if (timestamp == Timestamps.INVALID) {
+            return rawTimestamp;
+        }
+        if (!Timestamps.hasFourDigitYear(timestamp)) {
+            return DATE_TIME_FORMATTER.format(Timestamps.toOffsetDateTime(timestamp));
+        }
+        return Timestamps.appendDateTime(new StringBuilder(16), timestamp).toString();
     }
 
-    private Set<String> collectReferencedIds(List<Message> messages) {
-        return messages.stream()
-                .map(Message::getReference)
-                .filter(Objects::nonNull)
-                .map(Reference::getMessageID)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toSet());
+    /**
+     * Appends {@code m:} and the id hash as unsigned hex without leading zeros, the form
+     * {@link Integer#toHexString} gives.
+     */
+    private static StringBuilder appendMessageId(StringBuilder builder, int idHash) {
+        builder.append("m:");
+        for (int shift = Math.max(0, (31 - Integer.numberOfLeadingZeros(idHash)) & ~3); shift >= 0; shift -= 4) {
+            builder.append(HEX_DIGITS[(idHash >>> shift) & 0xF]);
+        }
+        return builder;
     }
 
-    private String stripMessagePrefix(String messageId) {
-        if (messageId == null) {
-            return null;
+    /**
+     * Appends the rendered timestamp; only raw and non-four-digit-year timestamps go through a temporary string.
+     */
+    private static StringBuilder appendTimestamp(StringBuilder builder, long timestamp, String rawTimestamp) {
+        if (timestamp != Timestamps.INVALID && Timestamps.hasFourDigitYear(timestamp)) {
+            return Timestamps.appendDateTime(builder, timestamp);
         }
-        return messageId.startsWith("m:") ? messageId.substring(2) : messageId;
+        return builder.append(formatTimestamp(timestamp, rawTimestamp));
     }
 
     private String excerpt(String content) {
@@ -345,19 +1079,52 @@ public final class DiscordMdExporter {
         return singleLine.length() <= 70 ? singleLine : singleLine.substring(0, 65) + "..";
     }
 
-    private String humanReadableSize(long bytes) {
+    /**
+     * Appends sizes below 1 KiB in bytes and larger ones with one decimal, rounded half up, in the largest binary
+     * unit not above them. The unit comes from the bit length and the decimal from the remainder bits, so there is
+     * no floating point and the separator is always a dot.
+     */
+    private static StringBuilder appendSize(StringBuilder builder, long bytes) {
         if (bytes < 1024) {
-            return bytes + "B";
+            return builder.append(bytes).append('B');
         }
-        int exp = (int) (Math.log(bytes) / Math.log(1024));
-        String unit = "KMGTPE".charAt(exp - 1) + "B";
-        return String.format("%.1f%s", bytes / Math.pow(1024, exp), unit);
+        int exponent = (63 - Long.numberOfLeadingZeros(bytes)) / 10;
+        int shift = exponent * 10;
+        long whole = bytes >>> shift;
+        long tenths = ((bytes & ((1L << shift) - 1)) * 10 + (1L << (shift - 1))) >>> shift;
+        if (tenths == 10) {
+            whole++;
+            tenths = 0;
+        }
+        return builder.append(whole).append('.').append((char) ('0' + tenths))
+                .append(SIZE_UNITS.charAt(exponent - 1)).append('B');
     }
 
     private String sanitizeHeadingValue(String value) {
         return value.replace("|", "/");
     }
 
+    /**
+     * Uses the matcher precompiled by the build ({@code <name>.tmc}), memory-mapped when it is a plain file, and
+     * falls back to compiling {@code <name>.txt} when the artifact is missing or unreadable.
+     */
+    private static TermMatcher loadTermMatcher(String name) {
+        URL artifact = DiscordMdExporter.class.getResource("/" + name + TermMatcher.ARTIFACT_EXTENSION);
+        if (artifact != null) {
+            try {
+                if ("file".equals(artifact.getProtocol())) {
+                    return TermMatcher.load(Path.of(artifact.toURI()));
+                }
+                try (InputStream inputStream = artifact.openStream()) {
+                    return TermMatcher.read(ByteBuffer.wrap(inputStream.readAllBytes()));
+                }
+            } catch (IOException | URISyntaxException ignored) {
+                // compile from the term list below
+            }
+        }
+        return TermMatcher.compile(loadRemovalTerms("/" + name + ".txt"));
+    }
+
     private static List<String> loadRemovalTerms(String from) {
         try (InputStream inputStream = DiscordMdExporter.class.getResourceAsStream(from)) {
             if (inputStream == null) {
@@ -374,9 +1141,157 @@ public final class DiscordMdExporter {
         }
     }
 
+    /**
+     * One output file of a rolling write: its body is staged in a temporary file while messages are added. A slice
+     * resumed from an earlier run appends to that run's file directly instead. {@code headLength} is the length the
+     * front matter and header will have; the dates in it are fixed-width, so it is known once the range starts.
+     */
+    private static final class Slice {
+        private final Path bodyFile;
+        private final Writer body;
+        private final long headBytes;
+        private final long resumedLength;
+        private long headLength;
+        private long key = Long.MIN_VALUE;
+        private long first = Timestamps.INVALID;
+        private long last = Timestamps.INVALID;
+        private long bytes;
+        private int messages;
+
+        private Slice(Path bodyFile, Writer body, long headBytes, long resumedLength) {
+            this.bodyFile = bodyFile;
+            this.body = body;
+            this.headBytes = headBytes;
+            this.resumedLength = resumedLength;
+            this.headLength = Math.max(headBytes, 0);
+        }
+
+        private static Slice open(Path outputDirectory) throws IOException {
+            Path bodyFile = Files.createTempFile(outputDirectory, ".slice-", ".part");
+            return new Slice(bodyFile, Files.newBufferedWriter(bodyFile, StandardCharsets.UTF_8), -1, -1);
+        }
+
+        private static Slice resume(Path outputDirectory, AppendState.Tail tail) throws IOException {
+            Path file = outputDirectory.resolve(tail.file());
+            Slice slice = new Slice(file, Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND), tail.headBytes(), Files.size(file));
+            slice.key = tail.sliceKey();
+            slice.first = tail.first();
+            slice.last = tail.last();
+            slice.bytes = tail.bodyBytes();
+            slice.messages = tail.messages();
+            return slice;
+        }
+
+        private boolean isResumed() {
+            return resumedLength >= 0;
+        }
+
+        private boolean startsNewPeriod(long messageKey) {
+            return key != Long.MIN_VALUE && messageKey != Long.MIN_VALUE && messageKey != key;
+        }
+
+        /**
+         * @return whether this is the first message with a valid timestamp, which fixes the dates in the head
+         */
+        private boolean add(long messageKey, long timestamp, long messageBytes) {
+            if (key == Long.MIN_VALUE) {
+                key = messageKey;
+            }
+            boolean startsRange = timestamp != Timestamps.INVALID && first == Timestamps.INVALID;
+            if (timestamp != Timestamps.INVALID) {
+                first = startsRange ? timestamp : first;
+                last = timestamp;
+            }
+            bytes += messageBytes;
+            messages++;
+            return startsRange;
+        }
+
+        /**
+         * Drops what this run added: a staged body is deleted, a resumed file is cut back to its previous length.
+         */
+        private void discard() throws IOException {
+            try {
+                body.close();
+            } finally {
+                if (isResumed()) {
+                    truncate(bodyFile, resumedLength);
+                } else {
+                    Files.deleteIfExists(bodyFile);
+                }
+            }
+        }
+    }
+
+    /**
+     * The next message of one export in a k-way merge.
+     */
+    private static final class MergeCursor {
+        private static final Comparator<MergeCursor> ORDER =
+                Comparator.comparingLong((MergeCursor cursor) -> cursor.sortKey)
+                .thenComparingLong(cursor -> cursor.idKey)
+                .thenComparingInt(cursor -> cursor.source);
+
+        private final DiscordStreamReader reader;
+        private final int source;
+        private Message message;
+        private long sortKey;
+        private long idKey;
+
+        private MergeCursor(DiscordStreamReader reader, int source) {
+            this.reader = reader;
+            this.source = source;
+        }
+
+        private boolean advance() throws IOException {
+            message = reader.next();
+            if (message == null) {
+                return false;
+            }
+            sortKey = Timestamps.sortKey(Timestamps.parse(message.getTimestamp()));
+            idKey = message.getID() == null ? -1 : MessageIds.parseSnowflake(message.getID());
+            return true;
+        }
+    }
+
+    /**
+     * A filtered message on its way from a filter worker into the store.
+     */
+    private record Ingested(String id, long timestamp, String rawTimestamp, String author, String replyTargetId,
+                            String content, boolean hasContent, List<MessageStore.StoredAttachment> attachments,
+                            String reactions) {
+    }
+
     private record Metadata(String channel, String channelId, String conversationFrom, String conversationTo, String timezone,
                             String exportedAt) {
-        private static Metadata from(Discord discord, List<Message> messages) {
+
+        /**
+         * @return this metadata with the date range and timezone of the given packed timestamps
+         */
+        private Metadata forRange(long first, long last) {
+            if (first == Timestamps.INVALID) {
+                return this;
+            }
+            OffsetDateTime from = Timestamps.toOffsetDateTime(first);
+            OffsetDateTime to = Timestamps.toOffsetDateTime(last);
+            return new Metadata(channel, channelId, from.toLocalDate().toString(), to.toLocalDate().toString(),
+                    from.getOffset().toString(), exportedAt);
+        }
+
+        /**
+         * @return this metadata with the start of an earlier run's range and the later of both ends
+         */
+        private Metadata continuing(AppendState.Tail tail) {
+            if (tail.conversationFrom().startsWith("<")) {
+                return this;
+            }
+            String to = conversationTo.startsWith("<") || conversationTo.compareTo(tail.conversationTo()) < 0
+                    ? tail.conversationTo() : conversationTo;
+            return new Metadata(channel, channelId, tail.conversationFrom(), to, tail.timezone(), exportedAt);
+        }
+
+        private static Metadata from(Discord discord, MessageStore messages) {
             String channelName = Optional.ofNullable(discord.getChannel())
                     .map(Channel::getName)
                     .filter(name -> !name.isBlank())
@@ -403,22 +1318,28 @@ public final class DiscordMdExporter {
             return new Metadata(channelName, channelId, fromText, toText, timezone, exportedAt);
         }
 
-        private static OffsetDateTime earliest(List<Message> messages) {
-            return messages.stream()
-                    .map(Message::getTimestamp)
-                    .map(Metadata::resolveDate)
-                    .flatMap(Optional::stream)
-                    .min(Comparator.naturalOrder())
-                    .orElse(null);
+        private static OffsetDateTime earliest(MessageStore messages) {
+            long earliest = Timestamps.INVALID;
+            for (int row = 0; row < messages.size(); row++) {
+                long timestamp = messages.timestamp(row);
+                if (timestamp != Timestamps.INVALID && (earliest == Timestamps.INVALID
+                        || Timestamps.epochMillis(timestamp) < Timestamps.epochMillis(earliest))) {
+                    earliest = timestamp;
+                }
+            }
+            return earliest == Timestamps.INVALID ? null : Timestamps.toOffsetDateTime(earliest);
         }
 
-        private static OffsetDateTime latest(List<Message> messages, OffsetDateTime fallback) {
-            return messages.stream()
-                    .map(Message::getTimestamp)
-                    .map(Metadata::resolveDate)
-                    .flatMap(Optional::stream)
-                    .max(Comparator.naturalOrder())
-                    .orElse(fallback);
+        private static OffsetDateTime latest(MessageStore messages, OffsetDateTime fallback) {
+            long latest = Timestamps.INVALID;
+            for (int row = 0; row < messages.size(); row++) {
+                long timestamp = messages.timestamp(row);
+                if (timestamp != Timestamps.INVALID && (latest == Timestamps.INVALID
+                        || Timestamps.epochMillis(timestamp) > Timestamps.epochMillis(latest))) {
+                    latest = timestamp;
+                }
+            }
+            return latest == Timestamps.INVALID ? fallback : Timestamps.toOffsetDateTime(latest);
         }
 
         private static Optional<OffsetDateTime> resolveDate(String raw) {
@@ -427,19 +1348,7 @@ public final class DiscordMdExporter {
     }
 
     private static Optional<OffsetDateTime> parseTimestamp(String raw) {
-        if (raw == null) {
-            return Optional.empty();
-        }
-        try {
-            return Optional.of(OffsetDateTime.parse(raw));
-        } catch (RuntimeException ignored) {
-            // fallback to permissive parser below
-        }
-
-        try {
-            return Optional.of(Converter.parseDateTimeString(raw));
-        } catch (RuntimeException parsingException) {
-            return Optional.empty();
-        }
+        long timestamp = Timestamps.parse(raw);
+        return timestamp == Timestamps.INVALID ? Optional.empty() : Optional.of(Timestamps.toOffsetDateTime(timestamp));
     }
 }
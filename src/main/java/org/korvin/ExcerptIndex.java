@@ -0,0 +1,153 @@
+package org.korvin;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persistent map from message id to the quote excerpt of that message, built across all exports of a channel (see
+ * {@link DiscordMdExporter#writeExcerptIndex}) so that replies can quote messages from other date-range exports. The
+ * file holds sorted id keys, excerpt end offsets and the UTF-8 excerpts; it is memory-mapped and only read with
+ * absolute accessors, so one instance can be shared by any number of rendering threads.
+ */
+public final class ExcerptIndex {
+
+    public static final String EXTENSION = ".rxi";
+
+    private static final int MAGIC = 0x52584931;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+
+    public static final ExcerptIndex EMPTY = new ExcerptIndex(ByteBuffer.allocate(0), 0);
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int endsOffset;
+    private final int dataOffset;
+
+    private ExcerptIndex(ByteBuffer buffer, int count) {
+        this.buffer = buffer;
+        this.count = count;
+        this.endsOffset = HEADER_BYTES + count * Long.BYTES;
+        this.dataOffset = endsOffset + count * Integer.BYTES;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: ExcerptIndex <index" + EXTENSION + "> <export.json|export-directory>...");
+            return;
+        }
+        List<Path> exports = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            Path source = Path.of(args[i]);
+            exports.addAll(Files.isDirectory(source) ? BatchConverter.findExports(source) : List.of(source));
+        }
+        ExcerptIndex index = new DiscordMdExporter().writeExcerptIndex(exports, Path.of(args[0]));
+        System.out.printf("Indexed %d reply targets from %d exports into %s%n", index.size(), exports.size(),
+                Path.of(args[0]).toAbsolutePath());
+    }
+
+    /**
+     * Memory-maps an index written by {@link #write}.
+     */
+    public static ExcerptIndex load(Path indexFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(indexFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IOException("Not a reply excerpt index: " + indexFile);
+            }
+            int count = buffer.getInt(Integer.BYTES);
+            long tableEnd = HEADER_BYTES + (long) count * (Long.BYTES + Integer.BYTES);
+            if (count < 0 || tableEnd > buffer.limit()
+                    || (count > 0 && tableEnd + buffer.getInt((int) tableEnd - Integer.BYTES) > buffer.limit())) {
+                throw new IOException("Truncated reply excerpt index: " + indexFile);
+            }
+            return new ExcerptIndex(buffer, count);
+        }
+    }
+
+    /**
+     * Writes the excerpts through a sibling temporary file, so readers that still map the previous index keep a
+     * consistent view.
+     */
+    static void write(Map<Long, String> excerpts, Path indexFile) throws IOException {
+        long[] keys = excerpts.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+        Path parent = indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path partial = parent.resolve(indexFile.getFileName() + ".part");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(keys.length);
+            for (long key : keys) {
+                out.writeLong(key);
+            }
+            byte[][] data = new byte[keys.length][];
+            int end = 0;
+            for (int i = 0; i < keys.length; i++) {
+                data[i] = excerpts.get(keys[i]).getBytes(StandardCharsets.UTF_8);
+                end += data[i].length;
+                out.writeInt(end);
+            }
+            for (byte[] excerpt : data) {
+                out.write(excerpt);
+            }
+        }
+        Files.move(partial, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Canonical snowflakes map to their value; any other id to a negative 64-bit FNV-1a hash of it.
+     */
+    static long key(String id) {
+        long snowflake = MessageIds.parseSnowflake(id);
+        if (snowflake >= 0) {
+            return snowflake;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < id.length(); i++) {
+            hash = (hash ^ id.charAt(i)) * 0x100000001b3L;
+        }
+        return hash | Long.MIN_VALUE;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * @return the excerpt of the message, or {@code null} when the index does not know it
+     */
+    public String excerpt(String id) {
+        if (id == null || count == 0) {
+            return null;
+        }
+        long key = key(id);
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long candidate = buffer.getLong(HEADER_BYTES + middle * Long.BYTES);
+            if (candidate < key) {
+                low = middle + 1;
+            } else if (candidate > key) {
+                high = middle - 1;
+            } else {
+                int start = middle == 0 ? 0 : buffer.getInt(endsOffset + (middle - 1) * Integer.BYTES);
+                int end = buffer.getInt(endsOffset + middle * Integer.BYTES);
+                byte[] excerpt = new byte[end - start];
+                buffer.get(dataOffset + start, excerpt);
+                return new String(excerpt, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,152 @@
+package org.korvin;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * On-disk record of what each export contributed to the message counts, keyed by its path relative to the scanned
+ * directory. An entry stays valid while the file keeps its size and either its modification time or its SHA-256,
+ * so reruns only parse new and changed exports. The index is a cache: a missing, truncated or corrupt file, another
+ * format version or different counting parameters simply yield an empty index.
+ */
+final class FrequencyIndex {
+
+    private static final int MAGIC = 0x444D4649;
+    private static final int VERSION = 1;
+    private static final int HASH_BUFFER = 64 * 1024;
+    private static final int PRESIZE_LIMIT = 1 << 16;
+
+    private final int parameters;
+    private final Map<String, Entry> entries;
+
+    FrequencyIndex(int parameters, Map<String, Entry> entries) {
+        this.parameters = parameters;
+        this.entries = Objects.requireNonNull(entries, "entries");
+    }
+
+    /**
+     * @param parameters fingerprint of the counting rules; an index written with other rules is discarded
+     */
+    static FrequencyIndex load(Path indexFile, int parameters) throws IOException {
+        Map<String, Entry> entries = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != parameters) {
+                return new FrequencyIndex(parameters, Map.of());
+            }
+            int entryCount = checkedCount(in.readInt(), indexFile);
+            for (int i = 0; i < entryCount; i++) {
+                String key = in.readUTF();
+                long size = in.readLong();
+                long lastModified = in.readLong();
+                byte[] sha256 = new byte[32];
+                in.readFully(sha256);
+                int countCount = checkedCount(in.readInt(), indexFile);
+                Map<String, Integer> counts = HashMap.newHashMap(Math.min(countCount, PRESIZE_LIMIT));
+                for (int j = 0; j < countCount; j++) {
+                    counts.put(in.readUTF(), in.readInt());
+                }
+                entries.put(key, new Entry(size, lastModified, sha256, counts));
+            }
+        } catch (IOException missingOrUnreadable) {
+            // rebuilt from the exports
+            return new FrequencyIndex(parameters, Map.of());
+        }
+        return new FrequencyIndex(parameters, entries);
+    }
+
+    /**
+     * Rejects negative counts; a corrupt large one only presizes up to {@value #PRESIZE_LIMIT} and then runs into
+     * the end of the file.
+     */
+    private static int checkedCount(int count, Path indexFile) throws IOException {
+        if (count < 0) {
+            throw new IOException("Corrupt frequency index: " + indexFile);
+        }
+        return count;
+    }
+
+    Entry get(String key) {
+        return entries.get(key);
+    }
+
+    Map<String, Entry> entries() {
+        return entries;
+    }
+
+    /**
+     * Writes to a sibling temporary file first, so an interrupted run leaves the previous index intact.
+     */
+    void write(Path indexFile) throws IOException {
+        Path parent = indexFile.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path partial = parent.resolve(indexFile.getFileName() + ".part");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(parameters);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> file : new TreeMap<>(entries).entrySet()) {
+                Entry entry = file.getValue();
+                out.writeUTF(file.getKey());
+                out.writeLong(entry.size());
+                out.writeLong(entry.lastModified());
+                out.write(entry.sha256());
+                out.writeInt(entry.counts().size());
+                for (Map.Entry<String, Integer> count : entry.counts().entrySet()) {
+                    out.writeUTF(count.getKey());
+                    out.writeInt(count.getValue());
+                }
+            }
+        }
+        Files.move(partial, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static String key(Path directory, Path file) {
+        return directory.relativize(file).toString().replace('\\', '/');
+    }
+
+    static byte[] sha256(Path file) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException("SHA-256 is not available", exception);
+        }
+        byte[] buffer = new byte[HASH_BUFFER];
+        try (InputStream in = Files.newInputStream(file)) {
+            for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return digest.digest();
+    }
+
+    record Entry(long size, long lastModified, byte[] sha256, Map<String, Integer> counts) {
+
+        boolean matches(long size, long lastModified) {
+            return this.size == size && this.lastModified == lastModified;
+        }
+
+        boolean matches(long size, byte[] sha256) {
+            return this.size == size && Arrays.equals(this.sha256, sha256);
+        }
+
+        Entry withLastModified(long lastModified) {
+            return new Entry(size, lastModified, sha256, counts);
+        }
+    }
+}
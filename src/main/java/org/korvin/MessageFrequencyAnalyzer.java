@@ -1,28 +1,32 @@
 package org.korvin;
 
-import org.korvin.json.Discord;
-import org.korvin.json.Message;
+import org.korvin.collect.SpaceSaving;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.io.PrintStream;
-import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Arrays;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
- * Scans Discord export JSON files in a directory to find frequently recurring long messages.
+ * Scans Discord export JSON files in a directory to find frequently recurring long messages. Files are parsed
+ * concurrently; each worker counts one file into a private map that is then merged into the shared totals.
  */
 public final class MessageFrequencyAnalyzer {
 
@@ -30,13 +34,22 @@ public final class MessageFrequencyAnalyzer {
     private static final int RESULT_LIMIT = 256+128;
 
     private final DiscordMdExporter exporter;
+    private final int parallelism;
 
     public MessageFrequencyAnalyzer() {
         this(new DiscordMdExporter());
     }
 
     MessageFrequencyAnalyzer(DiscordMdExporter exporter) {
+        this(exporter, Runtime.getRuntime().availableProcessors());
+    }
+
+    MessageFrequencyAnalyzer(DiscordMdExporter exporter, int parallelism) {
         this.exporter = Objects.requireNonNull(exporter, "exporter");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.parallelism = parallelism;
     }
 
     /**
@@ -47,22 +60,126 @@ public final class MessageFrequencyAnalyzer {
      * @throws IOException if any JSON file cannot be read or parsed
      */
     public Map<String, Integer> countLongMessages(Path directory) throws IOException {
-        Objects.requireNonNull(directory, "directory");
-        if (!Files.isDirectory(directory)) {
-            throw new IOException("Provided path is not a directory: " + directory.toAbsolutePath());
-        }
+        Map<String, Integer> occurrences = new ConcurrentHashMap<>();
+        scan(directory, file -> count(file)
+                .forEach((content, count) -> occurrences.merge(content, count, Integer::sum)));
+        return occurrences;
+    }
+
+    /**
+     * Incremental variant of {@link #countLongMessages(Path)} backed by a {@link FrequencyIndex}: exports whose size
+     * and modification time (or content hash) are unchanged since the last run reuse their recorded counts, only new
+     * and changed files are parsed, and the updated index replaces the old one.
+     *
+     * @param directory directory containing Discord export JSON files
+     * @param indexFile index written by a previous run; created when missing
+     * @return a map keyed by message content with its occurrence count as value
+     * @throws IOException if any JSON file cannot be read or parsed, or the index cannot be written
+     */
+    public Map<String, Integer> countLongMessages(Path directory, Path indexFile) throws IOException {
+        Objects.requireNonNull(indexFile, "indexFile");
+        List<Path> files = BatchConverter.findExports(directory);
+        FrequencyIndex previous = FrequencyIndex.load(indexFile, MIN_CONTENT_LENGTH);
+        Map<String, FrequencyIndex.Entry> current = new ConcurrentHashMap<>();
+        scan(files, file -> {
+            String key = FrequencyIndex.key(directory, file);
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            FrequencyIndex.Entry known = previous.get(key);
+            if (known != null && known.matches(size, lastModified)) {
+                current.put(key, known);
+                return;
+            }
+            byte[] sha256 = FrequencyIndex.sha256(file);
+            if (known != null && known.matches(size, sha256)) {
+                current.put(key, known.withLastModified(lastModified));
+                return;
+            }
+            current.put(key, new FrequencyIndex.Entry(size, lastModified, sha256, count(file)));
+        });
+        new FrequencyIndex(MIN_CONTENT_LENGTH, current).write(indexFile);
 
         Map<String, Integer> occurrences = new HashMap<>();
+        current.values().forEach(entry -> entry.counts()
+                .forEach((content, count) -> occurrences.merge(content, count, Integer::sum)));
+        return occurrences;
+    }
 
-        try (Stream<Path> files = Files.walk(directory)) {
-            files.filter(Files::isRegularFile)
-                    .filter(path -> path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".json"))
-                    .forEach(path -> accumulate(path, occurrences));
-        } catch (UncheckedIOException exception) {
-            throw exception.getCause();
-        }
+    /**
+     * Bounded-memory alternative to {@link #topMessages(Path)}: per-file counts are folded into a
+     * {@link SpaceSaving} summary instead of a map of every distinct message, so memory no longer grows with the
+     * archive. Each reported count overestimates the true count by at most {@code maxError} times the number of
+     * counted messages (see {@link SpaceSaving.Estimate#error()}); any message above that share is reported.
+     *
+     * @param directory directory containing Discord export JSON files
+     * @param maxError  tolerated overestimate as a fraction of all counted messages, in
+     *                  {@code [1 / SpaceSaving.MAX_CAPACITY, 1]}
+     * @return up to {@value #RESULT_LIMIT} estimates ordered by count, most frequent first
+     * @throws IOException if any JSON file cannot be read or parsed
+     */
+    public List<SpaceSaving.Estimate<String>> approximateTopMessages(Path directory, double maxError)
+            throws IOException {
+        SpaceSaving<String> bounded = SpaceSaving.withMaxError(maxError);
+        SpaceSaving<String> summary = bounded.capacity() >= RESULT_LIMIT ? bounded : new SpaceSaving<>(RESULT_LIMIT);
+        scan(directory, file -> {
+            Map<String, Integer> counts = count(file);
+            synchronized (summary) {
+                counts.forEach(summary::offer);
+            }
+        });
 
-        return occurrences;
+        return summary.estimates().stream()
+                .sorted(Comparator.<SpaceSaving.Estimate<String>>comparingLong(SpaceSaving.Estimate::count).reversed()
+                        .thenComparing(SpaceSaving.Estimate::item))
+                .limit(RESULT_LIMIT)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Mines word n-grams from all message contents below the directory as term-file candidates.
+     *
+     * @param directory     directory containing Discord export JSON files
+     * @param options       n-gram length, summary size and ranking limits
+     * @param existingTerms terms already curated, left out of the result
+     * @return candidates ranked by whole-message and overall frequency
+     * @throws IOException if any JSON file cannot be read or parsed
+     */
+    public List<PhraseMiner.Candidate> minePhrases(Path directory, PhraseMiner.Options options,
+                                                   Collection<String> existingTerms) throws IOException {
+        PhraseMiner miner = new PhraseMiner(options);
+        scan(directory, file -> {
+            PhraseMiner.FileCounter counter = miner.newFileCounter();
+            try {
+                exporter.scanContents(file, counter::accept);
+            } catch (IOException exception) {
+                throw new IOException("Failed processing " + file.toAbsolutePath(), exception);
+            }
+            counter.flush();
+        });
+        return miner.candidates(existingTerms);
+    }
+
+    /**
+     * Runs the task for every export on the worker pool; tasks must be safe to run concurrently.
+     */
+    private void scan(Path directory, FileTask task) throws IOException {
+        scan(BatchConverter.findExports(directory), task);
+    }
+
+    private void scan(List<Path> files, FileTask task) throws IOException {
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<?>> pending = new ArrayList<>(files.size());
+            for (Path file : files) {
+                pending.add(executor.submit(() -> {
+                    task.process(file);
+                    return null;
+                }));
+            }
+            for (Future<?> future : pending) {
+                await(future, executor);
+            }
+        }
     }
 
     int x = 499;
@@ -108,19 +225,50 @@ public final class MessageFrequencyAnalyzer {
                 .collect(Collectors.toList());
     }
 
-    private void accumulate(Path jsonFile, Map<String, Integer> occurrences) {
+    private Map<String, Integer> count(Path jsonFile) throws IOException {
+        Map<String, Integer> occurrences = new HashMap<>();
         try {
-            Discord discord = exporter.readDiscord(jsonFile);
-            Message[] messages = Optional.ofNullable(discord.getMessages()).orElse(new Message[0]);
-            Arrays.stream(messages)
-                    .filter(Objects::nonNull)
-                    .map(Message::getContent)
-                    .map(content -> content != null ? content.strip() : null)
-                    .filter(content -> content != null && content.length() < MIN_CONTENT_LENGTH)
-                    .forEach(content -> occurrences.merge(content, 1, Integer::sum));
+            exporter.scanContents(jsonFile, (buffer, offset, length) -> {
+                int start = offset;
+                int end = offset + length;
+                while (start < end && Character.isWhitespace(buffer[start])) {
+                    start++;
+                }
+                while (end > start && Character.isWhitespace(buffer[end - 1])) {
+                    end--;
+                }
+                if (end - start < MIN_CONTENT_LENGTH) {
+                    occurrences.merge(new String(buffer, start, end - start), 1, Integer::sum);
+                }
+            });
         } catch (IOException exception) {
-            throw new UncheckedIOException("Failed processing " + jsonFile.toAbsolutePath(), exception);
+            throw new IOException("Failed processing " + jsonFile.toAbsolutePath(), exception);
         }
+        return occurrences;
+    }
+
+    private static void await(Future<?> future, ExecutorService executor) throws IOException {
+        try {
+            future.get();
+        } catch (ExecutionException exception) {
+            executor.shutdownNow();
+            if (exception.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (exception.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IOException(exception.getCause());
+        } catch (InterruptedException exception) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while counting messages");
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileTask {
+        void process(Path file) throws IOException;
     }
 
     public static void main(String[] args) {
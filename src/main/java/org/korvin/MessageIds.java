@@ -0,0 +1,94 @@
+package org.korvin;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps message ids to primitive {@code long} keys. Canonical decimal snowflakes become their numeric value; any other
+ * id (hand-written fixtures, foreign exports) gets a stable negative key for the lifetime of this instance.
+ * {@link #key} is not thread-safe; once all keys are created, {@link #hash} and {@link #id} only read and may be
+ * called from several threads.
+ */
+final class MessageIds {
+
+    static final long NONE = Long.MIN_VALUE;
+    private static final String UNKNOWN = "unknown";
+    private static final int MAX_SNOWFLAKE_DIGITS = 19;
+
+    private final Map<String, Long> otherKeys = new HashMap<>();
+    private final List<String> otherIds = new ArrayList<>();
+
+    long key(String rawId) {
+        if (rawId == null) {
+            return NONE;
+        }
+        long snowflake = parseSnowflake(rawId);
+        if (snowflake >= 0) {
+            return snowflake;
+        }
+        return otherKeys.computeIfAbsent(rawId, id -> {
+            otherIds.add(id);
+            return (long) -otherIds.size();
+        });
+    }
+
+    /**
+     * @return the {@link String#hashCode()} of the id this key was created from
+     */
+    int hash(long key) {
+        if (key == NONE) {
+            return UNKNOWN.hashCode();
+        }
+        return key >= 0 ? decimalHash(key) : otherIds.get((int) (-key - 1)).hashCode();
+    }
+
+    /**
+     * @return the id this key was created from, or {@code null} for {@link #NONE}
+     */
+    String id(long key) {
+        if (key == NONE) {
+            return null;
+        }
+        return key >= 0 ? Long.toString(key) : otherIds.get((int) (-key - 1));
+    }
+
+    /**
+     * @return the value of a canonical decimal id (no sign, no leading zeros), or {@code -1}
+     */
+    static long parseSnowflake(CharSequence rawId) {
+        int length = rawId.length();
+        if (length == 0 || length > MAX_SNOWFLAKE_DIGITS || (rawId.charAt(0) == '0' && length > 1)) {
+            return -1;
+        }
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = rawId.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+            if (value < 0) {
+                return -1;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Equivalent to {@code Long.toString(value).hashCode()} for non-negative values, without creating the String.
+     */
+    static int decimalHash(long value) {
+        if (value == 0) {
+            return '0';
+        }
+        int hash = 0;
+        int multiplier = 1;
+        for (long rest = value; rest > 0; rest /= 10) {
+            hash += (int) ('0' + rest % 10) * multiplier;
+            multiplier *= 31;
+        }
+        return hash;
+    }
+}
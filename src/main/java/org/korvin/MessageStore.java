@@ -0,0 +1,310 @@
+package org.korvin;
+
+import org.korvin.collect.LongHashSet;
+import org.korvin.collect.LongIntHashMap;
+import org.korvin.json.Discord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Struct-of-arrays storage for the part of an export the renderer needs. Every message is a row across primitive
+ * columns: id key, packed timestamp, index into a deduplicated author table, reply target, and a reference to its
+ * filtered content in a shared {@link TextBuffer}. Rows keep insertion order; {@link #seal()} adds the render order
+ * and resolves reply targets to rows.
+ */
+public final class MessageStore {
+
+    private static final byte HAS_CONTENT = 0x1;
+    private static final byte HAS_ATTACHMENTS = 0x2;
+    private static final byte REFERENCED = 0x4;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final Discord header;
+    private final MessageIds ids = new MessageIds();
+    private final TextBuffer text = new TextBuffer();
+    private final List<String> authors = new ArrayList<>();
+    private final Map<String, Integer> authorRows = new HashMap<>();
+    private final List<StoredAttachment> attachments = new ArrayList<>();
+    private final Map<Integer, String> unparsedTimestamps = new HashMap<>();
+
+    private long[] messageIds = new long[INITIAL_CAPACITY];
+    private long[] timestamps = new long[INITIAL_CAPACITY];
+    private long[] replyTargetIds = new long[INITIAL_CAPACITY];
+    private long[] contentReferences = new long[INITIAL_CAPACITY];
+    private int[] contentLengths = new int[INITIAL_CAPACITY];
+    private int[] authorIndexes = new int[INITIAL_CAPACITY];
+    private int[] attachmentEnds = new int[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private long[] reactionReferences;
+    private int[] reactionLengths;
+    private int size;
+    private long parsedMessages;
+
+    private boolean sealed;
+    private int[] order;
+    private int[] replyTargetRows;
+
+    MessageStore(Discord header) {
+        this.header = Objects.requireNonNull(header, "header");
+    }
+
+    public Discord header() {
+        return header;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return how many messages the export held, including the bot messages and duplicates that were not stored
+     */
+    public long parsedMessages() {
+        return parsedMessages;
+    }
+
+    void parsedMessages(long parsedMessages) {
+        this.parsedMessages = parsedMessages;
+    }
+
+    MessageIds ids() {
+        return ids;
+    }
+
+    void add(long id, long timestamp, String rawTimestamp, String author, long replyTargetId, String content,
+             boolean hasContent, List<StoredAttachment> messageAttachments) {
+        add(id, timestamp, rawTimestamp, author, replyTargetId, content, hasContent, messageAttachments, "");
+    }
+
+    /**
+     * @param reactions the formatted reaction list, empty when the message has none or reactions are not rendered
+     */
+    void add(long id, long timestamp, String rawTimestamp, String author, long replyTargetId, String content,
+             boolean hasContent, List<StoredAttachment> messageAttachments, String reactions) {
+        if (sealed) {
+            throw new IllegalStateException("Store is sealed");
+        }
+        if (size == messageIds.length) {
+            grow();
+        }
+        int row = size++;
+        messageIds[row] = id;
+        timestamps[row] = timestamp;
+        if (timestamp == Timestamps.INVALID) {
+            unparsedTimestamps.put(row, rawTimestamp);
+        }
+        authorIndexes[row] = authorRows.computeIfAbsent(author, name -> {
+            authors.add(name);
+            return authors.size() - 1;
+        });
+        replyTargetIds[row] = replyTargetId;
+        contentReferences[row] = text.append(content);
+        contentLengths[row] = content.length();
+        attachments.addAll(messageAttachments);
+        attachmentEnds[row] = attachments.size();
+        flags[row] = (byte) ((hasContent ? HAS_CONTENT : 0) | (messageAttachments.isEmpty() ? 0 : HAS_ATTACHMENTS));
+        if (!reactions.isEmpty()) {
+            if (reactionReferences == null) {
+                reactionReferences = new long[messageIds.length];
+                reactionLengths = new int[messageIds.length];
+            }
+            reactionReferences[row] = text.append(reactions);
+            reactionLengths[row] = reactions.length();
+        }
+    }
+
+    /**
+     * Orders rows by timestamp (stable, unparseable last) and resolves reply targets against the stored ids. Exports
+     * are nearly always in order already; that is detected in one pass and then no order is materialised at all. The
+     * reply targets are collected first, so the id lookup only holds the messages that are actually replied to.
+     */
+    MessageStore seal() {
+        if (sealed) {
+            return this;
+        }
+        sealed = true;
+        if (!isInOrder()) {
+            long[] sortKeys = new long[size];
+            order = new int[size];
+            for (int row = 0; row < size; row++) {
+                sortKeys[row] = Timestamps.sortKey(timestamps[row]);
+                order[row] = row;
+            }
+            mergeSort(order, sortKeys);
+        }
+
+        LongHashSet referencedIds = new LongHashSet();
+        for (int row = 0; row < size; row++) {
+            if (replyTargetIds[row] != MessageIds.NONE) {
+                referencedIds.add(replyTargetIds[row]);
+            }
+        }
+        LongIntHashMap firstRowById = new LongIntHashMap(referencedIds.size());
+        for (int position = 0; position < size; position++) {
+            int row = row(position);
+            if (messageIds[row] != MessageIds.NONE && referencedIds.contains(messageIds[row])) {
+                firstRowById.putIfAbsent(messageIds[row], row);
+                flags[row] |= REFERENCED;
+            }
+        }
+        replyTargetRows = new int[size];
+        for (int row = 0; row < size; row++) {
+            replyTargetRows[row] = replyTargetIds[row] == MessageIds.NONE ? -1 : firstRowById.get(replyTargetIds[row], -1);
+        }
+        return this;
+    }
+
+    /**
+     * @return the row rendered at the given position once the store is sealed
+     */
+    int row(int position) {
+        return order == null ? position : order[position];
+    }
+
+    long id(int row) {
+        return messageIds[row];
+    }
+
+    long timestamp(int row) {
+        return timestamps[row];
+    }
+
+    String rawTimestamp(int row) {
+        return unparsedTimestamps.get(row);
+    }
+
+    String author(int row) {
+        return authors.get(authorIndexes[row]);
+    }
+
+    long replyTargetId(int row) {
+        return replyTargetIds[row];
+    }
+
+    /**
+     * @return the row of the first message carrying the reply target id, or {@code -1} if it is not in this store
+     */
+    int replyTargetRow(int row) {
+        return replyTargetRows[row];
+    }
+
+    boolean hasContent(int row) {
+        return (flags[row] & HAS_CONTENT) != 0;
+    }
+
+    boolean hasAttachments(int row) {
+        return (flags[row] & HAS_ATTACHMENTS) != 0;
+    }
+
+    boolean isReferenced(int row) {
+        return (flags[row] & REFERENCED) != 0;
+    }
+
+    StringBuilder appendContent(StringBuilder builder, int row) {
+        return text.appendTo(builder, contentReferences[row], contentLengths[row]);
+    }
+
+    String content(int row) {
+        return text.toString(contentReferences[row], contentLengths[row]);
+    }
+
+    /**
+     * @return the formatted reaction list, empty when none was stored for the row
+     */
+    String reactions(int row) {
+        return reactionReferences == null ? "" : text.toString(reactionReferences[row], reactionLengths[row]);
+    }
+
+    List<StoredAttachment> attachments(int row) {
+        return attachments.subList(row == 0 ? 0 : attachmentEnds[row - 1], attachmentEnds[row]);
+    }
+
+    private void grow() {
+        int capacity = size + (size >> 1);
+        messageIds = Arrays.copyOf(messageIds, capacity);
+        timestamps = Arrays.copyOf(timestamps, capacity);
+        replyTargetIds = Arrays.copyOf(replyTargetIds, capacity);
+        contentReferences = Arrays.copyOf(contentReferences, capacity);
+        contentLengths = Arrays.copyOf(contentLengths, capacity);
+        authorIndexes = Arrays.copyOf(authorIndexes, capacity);
+        attachmentEnds = Arrays.copyOf(attachmentEnds, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        if (reactionReferences != null) {
+            reactionReferences = Arrays.copyOf(reactionReferences, capacity);
+            reactionLengths = Arrays.copyOf(reactionLengths, capacity);
+        }
+    }
+
+    private boolean isInOrder() {
+        for (int row = 1; row < size; row++) {
+            if (Timestamps.sortKey(timestamps[row - 1]) > Timestamps.sortKey(timestamps[row])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stable natural merge sort of row indexes by their primitive key: the rows are split into the ascending runs
+     * they already form, and neighbouring runs are merged pairwise. Concatenated or mostly ordered exports consist
+     * of a few long runs and take only {@code log2(runs)} passes.
+     */
+    private static void mergeSort(int[] rows, long[] keys) {
+        int[] bounds = runs(rows, keys);
+        int runs = bounds.length - 1;
+        int[] source = rows;
+        int[] target = new int[rows.length];
+        while (runs > 1) {
+            int merged = 0;
+            for (int run = 0; run < runs; run += 2) {
+                int low = bounds[run];
+                int middle = bounds[Math.min(run + 1, runs)];
+                int high = bounds[Math.min(run + 2, runs)];
+                int left = low;
+                int right = middle;
+                for (int out = low; out < high; out++) {
+                    if (left < middle && (right >= high || keys[source[left]] <= keys[source[right]])) {
+                        target[out] = source[left++];
+                    } else {
+                        target[out] = source[right++];
+                    }
+                }
+                bounds[merged++] = low;
+            }
+            bounds[merged] = rows.length;
+            runs = merged;
+            int[] swap = source;
+            source = target;
+            target = swap;
+        }
+        if (source != rows) {
+            System.arraycopy(source, 0, rows, 0, rows.length);
+        }
+    }
+
+    /**
+     * @return the start of every ascending run, followed by the row count
+     */
+    private static int[] runs(int[] rows, long[] keys) {
+        int[] bounds = new int[16];
+        int runs = 0;
+        for (int position = 0; position < rows.length; position++) {
+            if (position == 0 || keys[rows[position - 1]] > keys[rows[position]]) {
+                if (runs + 1 == bounds.length) {
+                    bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                }
+                bounds[runs++] = position;
+            }
+        }
+        bounds[runs] = rows.length;
+        return Arrays.copyOf(bounds, runs + 1);
+    }
+
+    record StoredAttachment(String fileName, long sizeBytes, String url) {
+    }
+}
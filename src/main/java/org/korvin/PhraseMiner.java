@@ -0,0 +1,211 @@
+package org.korvin;
+
+import org.korvin.collect.SpaceSaving;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Mines word n-grams from message contents as candidates for the term files. Phrases are lower-cased and
+ * whitespace-normalised; each is counted both as an n-gram anywhere in a message and as the whole of a short message.
+ * Counting goes through two {@link SpaceSaving} summaries, so memory is fixed by {@link Options#capacity()} no matter
+ * how large the corpus is.
+ */
+public final class PhraseMiner {
+
+    private static final int FLUSH_THRESHOLD = 1 << 16;
+
+    private final Options options;
+    private final SpaceSaving<String> phrases;
+    private final SpaceSaving<String> wholeMessages;
+
+    PhraseMiner(Options options) {
+        this.options = Objects.requireNonNull(options, "options");
+        this.phrases = new SpaceSaving<>(options.capacity());
+        this.wholeMessages = new SpaceSaving<>(options.capacity());
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: PhraseMiner <export-directory> <candidates.txt> [existing-term-file...]");
+            return;
+        }
+        Set<String> existing = new HashSet<>();
+        for (int i = 2; i < args.length; i++) {
+            existing.addAll(readTerms(Path.of(args[i])));
+        }
+        List<Candidate> candidates = new MessageFrequencyAnalyzer()
+                .minePhrases(Path.of(args[0]), Options.DEFAULT, existing);
+        writeTerms(candidates, Path.of(args[1]));
+        System.out.printf("Wrote %d candidates to %s%n", candidates.size(), Path.of(args[1]).toAbsolutePath());
+    }
+
+    /**
+     * @return a per-file counter; it buffers exact counts and folds them into this miner when full or flushed
+     */
+    FileCounter newFileCounter() {
+        return new FileCounter();
+    }
+
+    /**
+     * Ranks phrases by how many short messages consist of nothing else, then by overall frequency. Phrases below
+     * {@link Options#minCount()} and those already present in {@code existingTerms} (case-insensitive) are dropped.
+     */
+    synchronized List<Candidate> candidates(Collection<String> existingTerms) {
+        Set<String> known = new HashSet<>();
+        existingTerms.forEach(term -> known.add(normalize(term)));
+        Map<String, Long> whole = new HashMap<>();
+        wholeMessages.estimates().forEach(estimate -> whole.put(estimate.item(), estimate.count()));
+        return phrases.estimates().stream()
+                .filter(estimate -> estimate.count() >= options.minCount())
+                .filter(estimate -> !known.contains(estimate.item()))
+                .map(estimate -> new Candidate(estimate.item(), estimate.count(),
+                        whole.getOrDefault(estimate.item(), 0L), estimate.error()))
+                .sorted(Comparator.comparingLong(Candidate::wholeMessages).reversed()
+                        .thenComparing(Comparator.comparingLong(Candidate::count).reversed())
+                        .thenComparing(Candidate::phrase))
+                .limit(options.limit())
+                .toList();
+    }
+
+    /**
+     * Writes the phrases in term-file format: one UTF-8 term per line.
+     */
+    static void writeTerms(List<Candidate> candidates, Path destination) throws IOException {
+        Path parent = destination.getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(destination, StandardCharsets.UTF_8)) {
+            for (Candidate candidate : candidates) {
+                writer.write(candidate.phrase());
+                writer.newLine();
+            }
+        }
+    }
+
+    static List<String> readTerms(Path source) throws IOException {
+        try (var lines = Files.lines(source, StandardCharsets.UTF_8)) {
+            return lines.map(String::trim).filter(line -> !line.isEmpty()).toList();
+        }
+    }
+
+    private String normalize(String term) {
+        FileCounter counter = new FileCounter();
+        counter.tokenize(term.toCharArray(), 0, term.length());
+        return counter.normalized.toString();
+    }
+
+    private synchronized void merge(Map<String, long[]> counts) {
+        counts.forEach((phrase, count) -> {
+            phrases.offer(phrase, count[0]);
+            wholeMessages.offer(phrase, count[1]);
+        });
+    }
+
+    final class FileCounter {
+
+        private final Map<String, long[]> counts = new HashMap<>();
+        private final StringBuilder normalized = new StringBuilder();
+        private int[] tokenStarts = new int[16];
+        private int[] tokenEnds = new int[16];
+
+        void accept(char[] buffer, int offset, int length) {
+            int tokens = tokenize(buffer, offset, length);
+            if (tokens == 0) {
+                return;
+            }
+            String message = normalized.toString();
+            for (int start = 0; start < tokens; start++) {
+                int last = Math.min(tokens, start + options.maxWords());
+                for (int end = start; end < last; end++) {
+                    count(message.substring(tokenStarts[start], tokenEnds[end]))[0]++;
+                }
+            }
+            if (tokens <= options.maxWords() && message.length() <= options.maxWholeLength()) {
+                count(message)[1]++;
+            }
+            if (counts.size() >= FLUSH_THRESHOLD) {
+                flush();
+            }
+        }
+
+        void flush() {
+            merge(counts);
+            counts.clear();
+        }
+
+        private long[] count(String phrase) {
+            return counts.computeIfAbsent(phrase, key -> new long[2]);
+        }
+
+        /**
+         * Joins the lower-cased, whitespace-separated tokens with single spaces into {@link #normalized}.
+         */
+        private int tokenize(char[] buffer, int offset, int length) {
+            normalized.setLength(0);
+            int tokens = 0;
+            int i = offset;
+            int end = offset + length;
+            while (i < end) {
+                while (i < end && Character.isWhitespace(buffer[i])) {
+                    i++;
+                }
+                if (i == end) {
+                    break;
+                }
+                if (tokens == tokenStarts.length) {
+                    tokenStarts = Arrays.copyOf(tokenStarts, tokens * 2);
+                    tokenEnds = Arrays.copyOf(tokenEnds, tokens * 2);
+                }
+                if (tokens > 0) {
+                    normalized.append(' ');
+                }
+                tokenStarts[tokens] = normalized.length();
+                while (i < end && !Character.isWhitespace(buffer[i])) {
+                    normalized.append(Character.toLowerCase(buffer[i++]));
+                }
+                tokenEnds[tokens++] = normalized.length();
+            }
+            return tokens;
+        }
+    }
+
+    /**
+     * @param maxWords       longest n-gram, in words
+     * @param maxWholeLength longest message, in characters, that is counted as a whole-message phrase
+     * @param capacity       counters per {@link SpaceSaving} summary
+     * @param minCount       least estimated frequency for a phrase to be proposed
+     * @param limit          most candidates to return
+     */
+    public record Options(int maxWords, int maxWholeLength, int capacity, long minCount, int limit) {
+
+        public static final Options DEFAULT = new Options(3, 32, 200_000, 5, 2_000);
+
+        public Options {
+            if (maxWords < 1 || maxWholeLength < 1 || capacity < 1 || limit < 0) {
+                throw new IllegalArgumentException("Invalid phrase mining options");
+            }
+        }
+    }
+
+    /**
+     * @param count         estimated occurrences as an n-gram
+     * @param wholeMessages estimated number of short messages consisting of exactly this phrase
+     * @param maxError      how much {@code count} may overestimate
+     */
+    public record Candidate(String phrase, long count, long wholeMessages, long maxError) {
+    }
+}
@@ -0,0 +1,26 @@
+package org.korvin;
+
+import org.korvin.json.MessageField;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Optional sections of the rendered markdown. The message properties an export is parsed for follow from these
+ * options, so disabled sections are skipped by the JSON reader instead of being bound and discarded.
+ *
+ * @param reactions render a {@code - reactions:} line under messages that have reactions
+ */
+public record RenderOptions(boolean reactions) {
+
+    public static final RenderOptions DEFAULT = new RenderOptions(false);
+
+    public Set<MessageField> messageFields() {
+        EnumSet<MessageField> fields = EnumSet.of(MessageField.ID, MessageField.TIMESTAMP, MessageField.CONTENT,
+                MessageField.AUTHOR, MessageField.ATTACHMENTS, MessageField.REFERENCE);
+        if (reactions) {
+            fields.add(MessageField.REACTIONS);
+        }
+        return fields;
+    }
+}
@@ -3,53 +3,101 @@ package org.korvin;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.text.CollationKey;
 import java.text.Collator;
 import java.util.*;
 
 
+/**
+ * Term list compiler. Merges UTF-8 term files, trims lines, drops empty ones and entries that only differ in ASCII
+ * case (the matcher folds those anyway), and sorts by length, then root-locale primary collation, then code points.
+ * The result can be written back as a term file and as a precompiled {@link TermMatcher} artifact.
+ */
 public final class SortUtf8TextFile {
+
     public static void main(String[] args) throws Exception {
+        Path text = null;
+        Path matcher = null;
+        List<Path> inputs = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--text" -> text = Paths.get(args[++i]);
+                case "--matcher" -> matcher = Paths.get(args[++i]);
+                default -> inputs.add(Paths.get(args[i]));
+            }
+        }
+        if (inputs.isEmpty() || (text == null && matcher == null)) {
+            System.out.println("Usage: SortUtf8TextFile [--text <sorted.txt>] [--matcher <terms"
+                    + TermMatcher.ARTIFACT_EXTENSION + ">] <input.txt>...");
+            return;
+        }
 
+        List<String> lines = new ArrayList<>();
+        for (Path input : inputs) {
+            readFile(input, lines);
+        }
+        List<String> terms = sortTerms(lines);
 
-        //Path in = Paths.get("C:\\workspace\\codex\\discordmd\\src\\main\\resources\\filterplus.txt");
-        Path out = Paths.get("C:\\workspace\\codex\\discordmd\\src\\main\\resources\\filter-all.txt");
+        if (text != null) {
+            createParent(text);
+            try (BufferedWriter bw = Files.newBufferedWriter(text, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                for (String s : terms) {
+                    bw.write(s);
+                    bw.newLine();
+                }
+            }
+        }
+        if (matcher != null) {
+            createParent(matcher);
+            TermMatcher.compile(terms).write(matcher);
+        }
+    }
 
+    /**
+     * Deduplicates and orders terms; collation keys are computed once per term rather than on every comparison.
+     */
+    static List<String> sortTerms(Collection<String> lines) {
         Collator collator = Collator.getInstance(Locale.ROOT);
         collator.setStrength(Collator.PRIMARY);
 
-        Comparator<String> byLenThenName = (a, b) -> {
-            int la = a.length();
-            int lb = b.length();
-            if (la != lb) return Integer.compare(la, lb);
-            int c = collator.compare(a, b);
-            if (c != 0) return c;
-            return a.compareTo(b);
-        };
-
-        NavigableSet<String> lines = new TreeSet<>(byLenThenName);
-
-        readFile(Paths.get("C:\\workspace\\codex\\discordmd\\src\\main\\resources\\filter.txt"), lines);
-        readFile(Paths.get("C:\\workspace\\codex\\discordmd\\src\\main\\resources\\filterplus2.txt"), lines);
-
-
-        // Collections.sort(lines); // alphabetic (lexicographic). For case-insensitive: Collections.sort(lines, String.CASE_INSENSITIVE_ORDER);
+        Map<String, String> byFoldedTerm = new HashMap<>();
+        for (String line : lines) {
+            String s = line.trim();
+            if (!s.isEmpty()) byFoldedTerm.merge(fold(s), s, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+        }
 
+        List<SortKey> keys = new ArrayList<>(byFoldedTerm.size());
+        for (String term : byFoldedTerm.values()) {
+            keys.add(new SortKey(term, collator.getCollationKey(term)));
+        }
+        keys.sort(Comparator.comparingInt((SortKey key) -> key.term().length())
+                .thenComparing(SortKey::collationKey)
+                .thenComparing(SortKey::term));
+        return keys.stream().map(SortKey::term).toList();
+    }
 
-        try (BufferedWriter bw = Files.newBufferedWriter(out, StandardCharsets.UTF_8,
-                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
-            for (String s : lines) {
-                bw.write(s);
-                bw.newLine();
-            }
+    private static String fold(String term) {
+        char[] folded = term.toCharArray();
+        for (int i = 0; i < folded.length; i++) {
+            folded[i] = TermMatcher.fold(folded[i]);
         }
+        return new String(folded);
     }
 
-    private static void readFile(Path in, NavigableSet<String> lines) throws IOException {
+    private static void readFile(Path in, List<String> lines) throws IOException {
         try (BufferedReader br = Files.newBufferedReader(in, StandardCharsets.UTF_8)) {
             for (String line; (line = br.readLine()) != null; ) {
-                String s = line.trim(); // remove surrounding whitespace; drop this if you want exact preservation
-                if (!s.isEmpty()) lines.add(s); // skip empty lines
+                lines.add(line);
             }
         }
     }
-}
\ No newline at end of file
+
+    private static void createParent(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+    }
+
+    private record SortKey(String term, CollationKey collationKey) {
+    }
+}
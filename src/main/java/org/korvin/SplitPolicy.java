@@ -0,0 +1,47 @@
+package org.korvin;
+
+/**
+ * When a rolling markdown output starts a new file: at local calendar boundaries of the message timestamps, and/or
+ * once a file reaches a size or message-count limit. A single message is never split across files.
+ *
+ * @param period      calendar slice per file
+ * @param maxBytes    UTF-8 file size, front matter and header included, that a file only exceeds when a single
+ *                    message does not fit into an empty one, {@code 0} for no limit
+ * @param maxMessages rendered messages per file, {@code 0} for no limit
+ */
+public record SplitPolicy(Period period, long maxBytes, int maxMessages) {
+
+    public static final SplitPolicy NONE = new SplitPolicy(Period.NONE, 0, 0);
+
+    public enum Period {
+        NONE, DAY, WEEK, MONTH
+    }
+
+    public SplitPolicy {
+        if (period == null || maxBytes < 0 || maxMessages < 0) {
+            throw new IllegalArgumentException("Invalid split policy");
+        }
+    }
+
+    /**
+     * @return the calendar slice of a packed timestamp; unparseable timestamps never start a new slice
+     */
+    long sliceKey(long timestamp) {
+        if (timestamp == Timestamps.INVALID) {
+            return Long.MIN_VALUE;
+        }
+        return switch (period) {
+            case NONE -> 0;
+            case DAY -> Timestamps.localEpochDay(timestamp);
+            case WEEK -> Math.floorDiv(Timestamps.localEpochDay(timestamp) + 3, 7);
+            case MONTH -> Timestamps.localMonthIndex(timestamp);
+        };
+    }
+
+    /**
+     * @return whether a file of {@code bytes}, head included, holding {@code messages} cannot take another message
+     */
+    boolean isFull(long bytes, int messages, long messageBytes) {
+        return (maxBytes > 0 && bytes + messageBytes > maxBytes) || (maxMessages > 0 && messages >= maxMessages);
+    }
+}
@@ -0,0 +1,306 @@
+package org.korvin;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * Case-insensitive Aho-Corasick automaton that removes every occurrence of a fixed term list in one linear pass.
+ * Matching mirrors {@code (?i)\b<term>\b} as produced for each term individually: ASCII case folding, and a word
+ * boundary on either side of a term that starts or ends with a letter or digit. Overlapping hits resolve
+ * leftmost-longest, so the cost per input is independent of the number of terms. A compiled automaton can be saved
+ * as a binary artifact ({@value #ARTIFACT_EXTENSION}) and memory-mapped back without rebuilding it.
+ */
+final class TermMatcher {
+
+    static final int LEADING_BOUNDARY = 0x1;
+    static final int TRAILING_BOUNDARY = 0x2;
+    static final String ARTIFACT_EXTENSION = ".tmc";
+
+    private static final int MAGIC = 0x544D4331;
+
+    private final int[] edgeOffsets;
+    private final char[] edgeLabels;
+    private final int[] edgeTargets;
+    private final int[] failLinks;
+    private final int[] outputLinks;
+    private final int[] termLengths;
+    private final byte[] boundaries;
+
+    TermMatcher(int[] edgeOffsets, char[] edgeLabels, int[] edgeTargets, int[] failLinks, int[] outputLinks,
+                int[] termLengths, byte[] boundaries) {
+        this.edgeOffsets = edgeOffsets;
+        this.edgeLabels = edgeLabels;
+        this.edgeTargets = edgeTargets;
+        this.failLinks = failLinks;
+        this.outputLinks = outputLinks;
+        this.termLengths = termLengths;
+        this.boundaries = boundaries;
+    }
+
+    static TermMatcher compile(List<String> terms) {
+        Objects.requireNonNull(terms, "terms");
+        List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        List<Integer> lengths = new ArrayList<>();
+        List<Integer> flags = new ArrayList<>();
+        children.add(new TreeMap<>());
+        lengths.add(0);
+        flags.add(0);
+        for (String term : terms) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            int state = 0;
+            for (int i = 0; i < term.length(); i++) {
+                char label = fold(term.charAt(i));
+                Integer next = children.get(state).get(label);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(label, next);
+                    children.add(new TreeMap<>());
+                    lengths.add(0);
+                    flags.add(0);
+                }
+                state = next;
+            }
+            lengths.set(state, term.length());
+            flags.set(state, boundaryFlags(term));
+        }
+        return flatten(children, lengths, flags);
+    }
+
+    /**
+     * Memory-maps an artifact written by {@link #write(Path)}.
+     */
+    static TermMatcher load(Path artifact) throws IOException {
+        try (FileChannel channel = FileChannel.open(artifact, StandardOpenOption.READ)) {
+            return read(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    static TermMatcher read(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a term matcher artifact");
+            }
+            int states = buffer.getInt();
+            int edges = buffer.getInt();
+            int[] edgeOffsets = ints(buffer, states + 1);
+            char[] edgeLabels = new char[edges];
+            buffer.asCharBuffer().get(edgeLabels);
+            buffer.position(buffer.position() + edges * Character.BYTES);
+            int[] edgeTargets = ints(buffer, edges);
+            int[] failLinks = ints(buffer, states);
+            int[] outputLinks = ints(buffer, states);
+            int[] termLengths = ints(buffer, states);
+            byte[] boundaries = new byte[states];
+            buffer.get(boundaries);
+            return new TermMatcher(edgeOffsets, edgeLabels, edgeTargets, failLinks, outputLinks, termLengths,
+                    boundaries);
+        } catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException exception) {
+            throw new IOException("Truncated term matcher artifact", exception);
+        }
+    }
+
+    void write(Path destination) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(destination)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(failLinks.length);
+            out.writeInt(edgeLabels.length);
+            writeInts(out, edgeOffsets);
+            for (char label : edgeLabels) {
+                out.writeChar(label);
+            }
+            writeInts(out, edgeTargets);
+            writeInts(out, failLinks);
+            writeInts(out, outputLinks);
+            writeInts(out, termLengths);
+            out.write(boundaries);
+        }
+    }
+
+    private static int[] ints(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    private static void writeInts(DataOutputStream out, int[] values) throws IOException {
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * @return the content with all term occurrences removed, or the same instance when nothing matched
+     */
+    String removeAll(String content) {
+        int[] longestAt = null;
+        int state = 0;
+        int length = content.length();
+        for (int i = 0; i < length; i++) {
+            state = step(state, fold(content.charAt(i)));
+            int output = termLengths[state] > 0 ? state : outputLinks[state];
+            for (; output > 0; output = outputLinks[output]) {
+                int termLength = termLengths[output];
+                int start = i + 1 - termLength;
+                if (!hasBoundaries(content, start, i + 1, boundaries[output])) {
+                    continue;
+                }
+                if (longestAt == null) {
+                    longestAt = new int[length];
+                }
+                longestAt[start] = Math.max(longestAt[start], termLength);
+            }
+        }
+        return longestAt == null ? content : cut(content, longestAt);
+    }
+
+    private int step(int state, char label) {
+        while (true) {
+            int target = transition(state, label);
+            if (target >= 0) {
+                return target;
+            }
+            if (state == 0) {
+                return 0;
+            }
+            state = failLinks[state];
+        }
+    }
+
+    private int transition(int state, char label) {
+        int low = edgeOffsets[state];
+        int high = edgeOffsets[state + 1] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            char candidate = edgeLabels[mid];
+            if (candidate < label) {
+                low = mid + 1;
+            } else if (candidate > label) {
+                high = mid - 1;
+            } else {
+                return edgeTargets[mid];
+            }
+        }
+        return -1;
+    }
+
+    private static String cut(String content, int[] longestAt) {
+        StringBuilder builder = new StringBuilder(content.length());
+        int i = 0;
+        while (i < content.length()) {
+            if (longestAt[i] > 0) {
+                i += longestAt[i];
+            } else {
+                builder.append(content.charAt(i++));
+            }
+        }
+        return builder.toString();
+    }
+
+    private static boolean hasBoundaries(String content, int start, int end, int flags) {
+        return ((flags & LEADING_BOUNDARY) == 0 || isBoundary(content, start))
+                && ((flags & TRAILING_BOUNDARY) == 0 || isBoundary(content, end));
+    }
+
+    /**
+     * Same definition as {@code \b} in {@link java.util.regex.Pattern} without {@code UNICODE_CHARACTER_CLASS}.
+     */
+    static boolean isBoundary(CharSequence content, int index) {
+        boolean left = index > 0 && isWord(content, Character.codePointBefore(content, index), index - 1);
+        boolean right = index < content.length() && isWord(content, Character.codePointAt(content, index), index);
+        return left ^ right;
+    }
+
+    private static boolean isWord(CharSequence content, int codePoint, int index) {
+        if (codePoint < 128) {
+            return codePoint == '_' || Character.isLetterOrDigit(codePoint);
+        }
+        return Character.getType(codePoint) == Character.NON_SPACING_MARK && hasBaseCharacter(content, index);
+    }
+
+    private static boolean hasBaseCharacter(CharSequence content, int index) {
+        for (int i = index; i >= 0; i--) {
+            int codePoint = Character.codePointAt(content, i);
+            if (Character.isLetterOrDigit(codePoint)) {
+                return true;
+            }
+            if (Character.getType(codePoint) != Character.NON_SPACING_MARK) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    static int boundaryFlags(String term) {
+        int flags = 0;
+        if (Character.isLetterOrDigit(term.codePointAt(0))) {
+            flags |= LEADING_BOUNDARY;
+        }
+        if (Character.isLetterOrDigit(term.codePointBefore(term.length()))) {
+            flags |= TRAILING_BOUNDARY;
+        }
+        return flags;
+    }
+
+    static char fold(char value) {
+        return value >= 'A' && value <= 'Z' ? (char) (value + ('a' - 'A')) : value;
+    }
+
+    private static TermMatcher flatten(List<TreeMap<Character, Integer>> children, List<Integer> lengths,
+                                       List<Integer> flags) {
+        int states = children.size();
+        int[] edgeOffsets = new int[states + 1];
+        for (int state = 0; state < states; state++) {
+            edgeOffsets[state + 1] = edgeOffsets[state] + children.get(state).size();
+        }
+        char[] edgeLabels = new char[edgeOffsets[states]];
+        int[] edgeTargets = new int[edgeOffsets[states]];
+        int[] termLengths = new int[states];
+        byte[] boundaries = new byte[states];
+        for (int state = 0; state < states; state++) {
+            int edge = edgeOffsets[state];
+            for (var child : children.get(state).entrySet()) {
+                edgeLabels[edge] = child.getKey();
+                edgeTargets[edge++] = child.getValue();
+            }
+            termLengths[state] = lengths.get(state);
+            boundaries[state] = flags.get(state).byteValue();
+        }
+
+        int[] failLinks = new int[states];
+        int[] outputLinks = new int[states];
+        Arrays.fill(outputLinks, -1);
+        TermMatcher matcher = new TermMatcher(edgeOffsets, edgeLabels, edgeTargets, failLinks, outputLinks,
+                termLengths, boundaries);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int edge = edgeOffsets[0]; edge < edgeOffsets[1]; edge++) {
+            queue.add(edgeTargets[edge]);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int edge = edgeOffsets[state]; edge < edgeOffsets[state + 1]; edge++) {
+                int child = edgeTargets[edge];
+                int fail = matcher.step(failLinks[state], edgeLabels[edge]);
+                failLinks[child] = fail;
+                outputLinks[child] = termLengths[fail] > 0 ? fail : outputLinks[fail];
+                queue.add(child);
+            }
+        }
+        return matcher;
+    }
+}
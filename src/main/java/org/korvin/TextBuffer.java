@@ -0,0 +1,71 @@
+package org.korvin;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only character storage made of fixed-size pages. Values are addressed by a {@code long} reference
+ * ({@code page << 32 | offset}) plus their length, so millions of strings share a few large arrays.
+ */
+final class TextBuffer {
+
+    private static final int PAGE_SIZE = 1 << 20;
+
+    private final List<char[]> pages = new ArrayList<>();
+    private char[] current;
+    private int currentPage = -1;
+    private int position;
+
+    long append(CharSequence value) {
+        int length = value.length();
+        if (length == 0) {
+            return 0L;
+        }
+        if (length > PAGE_SIZE / 4) {
+            char[] dedicated = new char[length];
+            copy(value, dedicated, 0);
+            pages.add(dedicated);
+            return reference(pages.size() - 1, 0);
+        }
+        if (current == null || position + length > PAGE_SIZE) {
+            current = new char[PAGE_SIZE];
+            pages.add(current);
+            currentPage = pages.size() - 1;
+            position = 0;
+        }
+        copy(value, current, position);
+        long reference = reference(currentPage, position);
+        position += length;
+        return reference;
+    }
+
+    StringBuilder appendTo(StringBuilder builder, long reference, int length) {
+        return length == 0 ? builder : builder.append(pages.get(page(reference)), offset(reference), length);
+    }
+
+    String toString(long reference, int length) {
+        return length == 0 ? "" : new String(pages.get(page(reference)), offset(reference), length);
+    }
+
+    private static void copy(CharSequence value, char[] target, int offset) {
+        if (value instanceof String string) {
+            string.getChars(0, string.length(), target, offset);
+        } else {
+            for (int i = 0; i < value.length(); i++) {
+                target[offset + i] = value.charAt(i);
+            }
+        }
+    }
+
+    private static long reference(int page, int offset) {
+        return ((long) page << 32) | offset;
+    }
+
+    private static int page(long reference) {
+        return (int) (reference >>> 32);
+    }
+
+    private static int offset(long reference) {
+        return (int) reference;
+    }
+}
@@ -0,0 +1,256 @@
+package org.korvin;
+
+import org.korvin.json.Converter;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Parses export timestamps into a single packed {@code long}: epoch milliseconds in the upper bits and the UTC offset
+ * in minutes in the lower {@value #OFFSET_BITS} bits. The fixed Discord shape
+ * {@code yyyy-MM-ddTHH:mm:ss[.fraction](Z|+HH:MM)} is decoded without allocation or exceptions; anything else goes
+ * through {@link OffsetDateTime#parse} and the permissive {@link Converter} formatter.
+ */
+final class Timestamps {
+
+    static final long INVALID = Long.MIN_VALUE;
+
+    private static final int OFFSET_BITS = 12;
+    private static final int OFFSET_BIAS = 1 << (OFFSET_BITS - 1);
+    private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+    private static final long MAX_EPOCH_MILLI = Long.MAX_VALUE >> OFFSET_BITS;
+    private static final int MAX_OFFSET_MINUTES = 18 * 60;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static final int MIN_FAST_LENGTH = "yyyy-MM-ddTHH:mm:ssZ".length();
+
+    private Timestamps() {
+    }
+
+    /**
+     * @return the packed timestamp, or {@link #INVALID} when the value is missing or cannot be parsed
+     */
+    static long parse(String raw) {
+        if (raw == null) {
+            return INVALID;
+        }
+        long packed = parseFast(raw);
+        return packed != INVALID ? packed : parseSlow(raw);
+    }
+
+    static long epochMillis(long packed) {
+        return packed >> OFFSET_BITS;
+    }
+
+    static int offsetMinutes(long packed) {
+        return (int) (packed & OFFSET_MASK) - OFFSET_BIAS;
+    }
+
+    /**
+     * Sort key placing unparseable timestamps after all valid ones.
+     */
+    static long sortKey(long packed) {
+        return packed == INVALID ? Long.MAX_VALUE : epochMillis(packed);
+    }
+
+    static OffsetDateTime toOffsetDateTime(long packed) {
+        return Instant.ofEpochMilli(epochMillis(packed))
+                .atOffset(ZoneOffset.ofTotalSeconds(offsetMinutes(packed) * 60));
+    }
+
+    /**
+     * Appends the local date and time as {@code yyyy-MM-dd HH:mm}.
+     */
+    static StringBuilder appendDateTime(StringBuilder builder, long packed) {
+        long localMillis = epochMillis(packed) + offsetMinutes(packed) * MILLIS_PER_MINUTE;
+        long epochDay = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+        int minuteOfDay = (int) (Math.floorMod(localMillis, MILLIS_PER_DAY) / MILLIS_PER_MINUTE);
+        appendDate(builder, epochDay).append(' ');
+        appendTwoDigits(builder, minuteOfDay / 60).append(':');
+        return appendTwoDigits(builder, minuteOfDay % 60);
+    }
+
+    /**
+     * Appends the local date as {@code yyyy-MM-dd}.
+     */
+    static StringBuilder appendLocalDate(StringBuilder builder, long packed) {
+        long localMillis = epochMillis(packed) + offsetMinutes(packed) * MILLIS_PER_MINUTE;
+        return appendDate(builder, Math.floorDiv(localMillis, MILLIS_PER_DAY));
+    }
+
+    /**
+     * @return days since 1970-01-01 of the local date
+     */
+    static long localEpochDay(long packed) {
+        long localMillis = epochMillis(packed) + offsetMinutes(packed) * MILLIS_PER_MINUTE;
+        return Math.floorDiv(localMillis, MILLIS_PER_DAY);
+    }
+
+    /**
+     * @return {@code year * 12 + month - 1} of the local date
+     */
+    static long localMonthIndex(long packed) {
+        long civil = civilFromDays(localEpochDay(packed));
+        return (civil >> 9) * 12 + ((civil >> 5) & 0xF) - 1;
+    }
+
+    static boolean hasFourDigitYear(long packed) {
+        long localMillis = epochMillis(packed) + offsetMinutes(packed) * MILLIS_PER_MINUTE;
+        long epochDay = Math.floorDiv(localMillis, MILLIS_PER_DAY);
+        return epochDay >= daysFromCivil(0, 1, 1) && epochDay <= daysFromCivil(9999, 12, 31);
+    }
+
+    private static StringBuilder appendDate(StringBuilder builder, long epochDay) {
+        long civil = civilFromDays(epochDay);
+        int year = (int) (civil >> 9);
+        int month = (int) (civil >> 5) & 0xF;
+        int day = (int) civil & 0x1F;
+        appendTwoDigits(builder, year / 100);
+        appendTwoDigits(builder, year % 100).append('-');
+        appendTwoDigits(builder, month).append('-');
+        return appendTwoDigits(builder, day);
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+        return builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+
+    private static long parseFast(String raw) {
+        int length = raw.length();
+        if (length < MIN_FAST_LENGTH || raw.charAt(4) != '-' || raw.charAt(7) != '-' || raw.charAt(10) != 'T'
+                || raw.charAt(13) != ':' || raw.charAt(16) != ':') {
+            return INVALID;
+        }
+        int year = digits(raw, 0, 4);
+        int month = digits(raw, 5, 2);
+        int day = digits(raw, 8, 2);
+        int hour = digits(raw, 11, 2);
+        int minute = digits(raw, 14, 2);
+        int second = digits(raw, 17, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
+            return INVALID;
+        }
+        int position = 19;
+        int millis = 0;
+        if (raw.charAt(position) == '.') {
+            int fractionStart = ++position;
+            while (position < length && isDigit(raw.charAt(position))) {
+                if (position - fractionStart < 3) {
+                    millis = millis * 10 + (raw.charAt(position) - '0');
+                }
+                position++;
+            }
+            int fractionLength = position - fractionStart;
+            if (fractionLength == 0 || fractionLength > 9 || position >= length) {
+                return INVALID;
+            }
+            for (int i = fractionLength; i < 3; i++) {
+                millis *= 10;
+            }
+        }
+        int offsetMinutes = parseOffset(raw, position);
+        if (offsetMinutes == Integer.MIN_VALUE) {
+            return INVALID;
+        }
+        long localSeconds = daysFromCivil(year, month, day) * 86_400L + hour * 3_600L + minute * 60L + second;
+        long epochMillis = (localSeconds - offsetMinutes * 60L) * 1_000L + millis;
+        return pack(epochMillis, offsetMinutes);
+    }
+
+    private static int parseOffset(String raw, int position) {
+        int remaining = raw.length() - position;
+        char sign = raw.charAt(position);
+        if (sign == 'Z' && remaining == 1) {
+            return 0;
+        }
+        if ((sign != '+' && sign != '-') || remaining != 6 || raw.charAt(position + 3) != ':') {
+            return Integer.MIN_VALUE;
+        }
+        int hours = digits(raw, position + 1, 2);
+        int minutes = digits(raw, position + 4, 2);
+        if (hours < 0 || hours > 18 || minutes < 0 || minutes > 59) {
+            return Integer.MIN_VALUE;
+        }
+        int total = hours * 60 + minutes;
+        if (total > MAX_OFFSET_MINUTES) {
+            return Integer.MIN_VALUE;
+        }
+        return sign == '-' ? -total : total;
+    }
+
+    private static long parseSlow(String raw) {
+        OffsetDateTime parsed;
+        try {
+            parsed = OffsetDateTime.parse(raw);
+        } catch (RuntimeException ignored) {
+            try {
+                parsed = Converter.parseDateTimeString(raw);
+            } catch (RuntimeException parsingException) {
+                return INVALID;
+            }
+        }
+        long epochMillis = parsed.toInstant().toEpochMilli();
+        if (Math.abs(epochMillis) > MAX_EPOCH_MILLI) {
+            return INVALID;
+        }
+        return pack(epochMillis, parsed.getOffset().getTotalSeconds() / 60);
+    }
+
+    private static long pack(long epochMillis, int offsetMinutes) {
+        return (epochMillis << OFFSET_BITS) | (offsetMinutes + OFFSET_BIAS);
+    }
+
+    private static int digits(String raw, int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = raw.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return switch (month) {
+            case 2 -> (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+            case 4, 6, 9, 11 -> 30;
+            default -> 31;
+        };
+    }
+
+    /**
+     * Days since 1970-01-01 of a proleptic Gregorian date (Hinnant's days_from_civil).
+     */
+    private static long daysFromCivil(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097L + dayOfEra - 719_468L;
+    }
+
+    /**
+     * Inverse of {@link #daysFromCivil}, packed as {@code year << 9 | month << 5 | day}.
+     */
+    private static long civilFromDays(long epochDay) {
+        long z = epochDay + 719_468L;
+        long era = Math.floorDiv(z, 146_097L);
+        long dayOfEra = z - era * 146_097L;
+        long yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long mp = (5 * dayOfYear + 2) / 153;
+        long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        long month = mp < 10 ? mp + 3 : mp - 9;
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+}
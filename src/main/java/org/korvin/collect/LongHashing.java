@@ -0,0 +1,29 @@
+package org.korvin.collect;
+
+final class LongHashing {
+
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private LongHashing() {
+    }
+
+    /**
+     * Finalizer of MurmurHash3; spreads the timestamp-heavy high bits of snowflakes over the low bits used as slot.
+     */
+    static int mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+
+    static int capacityFor(int expectedSize, float loadFactor) {
+        long required = (long) Math.ceil(Math.max(expectedSize, 4) / loadFactor) + 1;
+        if (required > MAX_CAPACITY) {
+            throw new IllegalArgumentException("Too many entries: " + expectedSize);
+        }
+        return Integer.highestOneBit((int) required - 1) << 1;
+    }
+}
@@ -0,0 +1,124 @@
+package org.korvin.collect;
+
+/**
+ * Open-addressing map from primitive {@code long} keys to {@code int} values with linear probing, used to index
+ * messages by snowflake id without boxed keys or entry objects.
+ */
+public final class LongIntHashMap {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private int resizeAt;
+    private boolean containsEmptyKey;
+    private int emptyKeyValue;
+
+    public LongIntHashMap() {
+        this(16);
+    }
+
+    public LongIntHashMap(int expectedSize) {
+        allocate(LongHashing.capacityFor(expectedSize, LOAD_FACTOR));
+    }
+
+    public int get(long key, int defaultValue) {
+        if (key == EMPTY) {
+            return containsEmptyKey ? emptyKeyValue : defaultValue;
+        }
+        int slot = LongHashing.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == EMPTY) {
+            return containsEmptyKey;
+        }
+        int slot = LongHashing.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public void put(long key, int value) {
+        insert(key, value, true);
+    }
+
+    /**
+     * @return {@code true} if the key was absent and the value has been stored
+     */
+    public boolean putIfAbsent(long key, int value) {
+        return insert(key, value, false);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private boolean insert(long key, int value, boolean replace) {
+        if (key == EMPTY) {
+            boolean absent = !containsEmptyKey;
+            if (absent || replace) {
+                emptyKeyValue = value;
+            }
+            if (absent) {
+                containsEmptyKey = true;
+                size++;
+            }
+            return absent;
+        }
+        int slot = LongHashing.mix(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                if (replace) {
+                    values[slot] = value;
+                }
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size >= resizeAt) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        long[] previousKeys = keys;
+        int[] previousValues = values;
+        allocate(capacity);
+        for (int i = 0; i < previousKeys.length; i++) {
+            long key = previousKeys[i];
+            if (key != EMPTY) {
+                int slot = LongHashing.mix(key) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = previousValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        resizeAt = (int) (capacity * LOAD_FACTOR);
+    }
+}
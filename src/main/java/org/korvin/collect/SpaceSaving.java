@@ -0,0 +1,166 @@
+package org.korvin.collect;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted Space-Saving summary (Metwally et al.) that tracks the most frequent items of a stream in a fixed number
+ * of counters. With {@code m} counters and a total weight {@code N}, every item heavier than {@code N / m} is kept,
+ * and each reported count exceeds the true count by at most its recorded {@link Estimate#error()} &le; {@code N / m}.
+ * While there are no more distinct items than counters the counts are exact.
+ */
+public final class SpaceSaving<T> {
+
+    /**
+     * Most counters a summary may hold; at roughly 100 bytes per counter this is already a few GB.
+     */
+    public static final int MAX_CAPACITY = 1 << 25;
+
+    private final int capacity;
+    private final Map<T, Counter<T>> counters;
+    private final Counter<T>[] heap;
+    private int size;
+    private long totalWeight;
+
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be in [1, " + MAX_CAPACITY + "]: " + capacity);
+        }
+        this.capacity = capacity;
+        this.counters = HashMap.newHashMap(capacity);
+        this.heap = (Counter<T>[]) new Counter[capacity];
+    }
+
+    /**
+     * @return a summary whose counts overestimate by at most {@code maxError} times the total weight
+     */
+    public static <T> SpaceSaving<T> withMaxError(double maxError) {
+        if (!(maxError >= 1.0 / MAX_CAPACITY && maxError <= 1)) {
+            throw new IllegalArgumentException("maxError must be in [1/" + MAX_CAPACITY + ", 1]: " + maxError);
+        }
+        return new SpaceSaving<>((int) Math.ceil(1 / maxError));
+    }
+
+    public void offer(T item) {
+        offer(item, 1);
+    }
+
+    public void offer(T item, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        totalWeight += weight;
+        Counter<T> counter = counters.get(item);
+        if (counter != null) {
+            counter.count += weight;
+            siftDown(counter.index);
+            return;
+        }
+        if (size < capacity) {
+            counter = new Counter<>(item, weight, 0);
+            counters.put(item, counter);
+            heap[size] = counter;
+            counter.index = size;
+            siftUp(size++);
+            return;
+        }
+        counter = heap[0];
+        counters.remove(counter.item);
+        counter.item = item;
+        counter.error = counter.count;
+        counter.count += weight;
+        counters.put(item, counter);
+        siftDown(0);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long totalWeight() {
+        return totalWeight;
+    }
+
+    /**
+     * @return the largest possible overestimate of any count, {@code 0} while the summary has not evicted yet
+     */
+    public long maxError() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    /**
+     * @return the tracked items in no particular order
+     */
+    public List<Estimate<T>> estimates() {
+        List<Estimate<T>> estimates = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            estimates.add(new Estimate<>(heap[i].item, heap[i].count, heap[i].error));
+        }
+        return estimates;
+    }
+
+    private void siftUp(int index) {
+        Counter<T> counter = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent].count <= counter.count) {
+                break;
+            }
+            place(heap[parent], index);
+            index = parent;
+        }
+        place(counter, index);
+    }
+
+    private void siftDown(int index) {
+        Counter<T> counter = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) {
+                child++;
+            }
+            if (counter.count <= heap[child].count) {
+                break;
+            }
+            place(heap[child], index);
+            index = child;
+        }
+        place(counter, index);
+    }
+
+    private void place(Counter<T> counter, int index) {
+        heap[index] = counter;
+        counter.index = index;
+    }
+
+    /**
+     * @param count upper bound of the true count
+     * @param error how much of {@code count} may have been inherited from evicted items
+     */
+    public record Estimate<T>(T item, long count, long error) {
+        public long guaranteedCount() {
+            return count - error;
+        }
+    }
+
+    private static final class Counter<T> {
+        private T item;
+        private long count;
+        private long error;
+        private int index;
+
+        private Counter(T item, long count, long error) {
+            this.item = item;
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.korvin.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Token-level scan that reports only {@code messages[].content} of a Discord export. Nothing is bound to objects:
+ * every other subtree is skipped, and each content value is handed out as a view into the parser's own character
+ * buffer, so callers decide whether a value is worth a {@link String}.
+ */
+public final class ContentScanner {
+
+    private ContentScanner() {
+    }
+
+    /**
+     * Receives one message content. The buffer is reused by the parser and only valid during the call.
+     */
+    @FunctionalInterface
+    public interface ContentConsumer {
+        void accept(char[] buffer, int offset, int length);
+    }
+
+    /**
+     * @return the number of messages seen, including those without content
+     */
+    public static long scan(Path source, ContentConsumer consumer) throws IOException {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(consumer, "consumer");
+        try (JsonParser parser = Converter.createParser(source)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Discord export must start with a JSON object");
+            }
+            long messages = 0;
+            for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+                boolean isMessages = "messages".equals(parser.currentName());
+                if (parser.nextToken() == JsonToken.START_ARRAY && isMessages) {
+                    messages += scanMessages(parser, consumer);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return messages;
+        }
+    }
+
+    private static long scanMessages(JsonParser parser, ContentConsumer consumer) throws IOException {
+        long messages = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token == null) {
+                throw new IOException("Unexpected end of input inside messages");
+            }
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+            messages++;
+            for (JsonToken field = parser.nextToken(); field == JsonToken.FIELD_NAME; field = parser.nextToken()) {
+                boolean isContent = "content".equals(parser.currentName());
+                JsonToken value = parser.nextToken();
+                if (!isContent || value.isStructStart()) {
+                    parser.skipChildren();
+                } else if (value == JsonToken.VALUE_STRING) {
+                    consumer.accept(parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+                } else if (value != JsonToken.VALUE_NULL) {
+                    char[] text = parser.getText().toCharArray();
+                    consumer.accept(text, 0, text.length);
+                }
+            }
+        }
+        return messages;
+    }
+}
@@ -15,6 +15,7 @@
 package org.korvin.json;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import com.fasterxml.jackson.databind.*;
 import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.core.JsonParser;
@@ -61,17 +62,23 @@ public class Converter {
     // Serialize/deserialize helpers
 
     public static Discord fromJsonString(String json) throws IOException {
-        return getObjectReader().readValue(json);
+        return READER.readValue(json);
     }
 
     public static String toJsonString(Discord obj) throws JsonProcessingException {
-        return getObjectWriter().writeValueAsString(obj);
+        return WRITER.writeValueAsString(obj);
     }
 
-    private static ObjectReader reader;
-    private static ObjectWriter writer;
+    public static JsonParser createParser(Path path) throws IOException {
+        return MAPPER.createParser(path.toFile());
+    }
+
+    // Created eagerly: parsers are opened from several threads, and static final fields are safely published.
+    private static final ObjectMapper MAPPER = createMapper();
+    private static final ObjectReader READER = MAPPER.readerFor(Discord.class);
+    private static final ObjectWriter WRITER = MAPPER.writerFor(Discord.class);
 
-    private static void instantiateMapper() {
+    private static ObjectMapper createMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.findAndRegisterModules();
         mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
@@ -85,17 +92,6 @@ public class Converter {
             }
         });
         mapper.registerModule(module);
-        reader = mapper.readerFor(Discord.class);
-        writer = mapper.writerFor(Discord.class);
-    }
-
-    private static ObjectReader getObjectReader() {
-        if (reader == null) instantiateMapper();
-        return reader;
-    }
-
-    private static ObjectWriter getObjectWriter() {
-        if (writer == null) instantiateMapper();
-        return writer;
+        return mapper;
     }
 }
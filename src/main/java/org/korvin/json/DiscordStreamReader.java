@@ -0,0 +1,157 @@
+package org.korvin.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Pull reader for Discord exports that binds the top-level metadata up front and hands out the
+ * {@code messages} array one {@link Message} at a time, so memory stays flat regardless of file size. When opened
+ * with a {@link MessageField} projection, unselected message properties are skipped token by token and stay
+ * {@code null} on the returned messages.
+ */
+public final class DiscordStreamReader implements Closeable {
+
+    private final JsonParser parser;
+    private final Discord header = new Discord();
+    private final Set<MessageField> fields;
+    private final boolean projected;
+    private boolean inMessages;
+
+    private DiscordStreamReader(JsonParser parser, Set<MessageField> fields) throws IOException {
+        this.parser = parser;
+        this.fields = fields.isEmpty() ? EnumSet.noneOf(MessageField.class) : EnumSet.copyOf(fields);
+        this.projected = this.fields.size() < MessageField.values().length;
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Discord export must start with a JSON object");
+        }
+        readHeaderFields();
+    }
+
+    public static DiscordStreamReader open(Path source) throws IOException {
+        return open(source, MessageField.all());
+    }
+
+    /**
+     * Opens the export binding only the given message properties.
+     */
+    public static DiscordStreamReader open(Path source, Set<MessageField> fields) throws IOException {
+        Objects.requireNonNull(source, "source");
+        Objects.requireNonNull(fields, "fields");
+        JsonParser parser = Converter.createParser(source);
+        try {
+            return new DiscordStreamReader(parser, fields);
+        } catch (IOException | RuntimeException exception) {
+            parser.close();
+            throw exception;
+        }
+    }
+
+    /**
+     * Export metadata without messages. Fields placed after the {@code messages} array (such as
+     * {@code messageCount}) are only populated once all messages have been consumed.
+     */
+    public Discord header() {
+        return header;
+    }
+
+    /**
+     * @return the next message, or {@code null} once the {@code messages} array is exhausted
+     */
+    public Message next() throws IOException {
+        while (inMessages) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                return projected ? readProjected() : parser.readValueAs(Message.class);
+            }
+            if (token == JsonToken.END_ARRAY || token == null) {
+                inMessages = false;
+                readHeaderFields();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return null;
+    }
+
+    public long forEachMessage(Consumer<Message> consumer) throws IOException {
+        long count = 0;
+        for (Message message = next(); message != null; message = next()) {
+            consumer.accept(message);
+            count++;
+        }
+        return count;
+    }
+
+    private Message readProjected() throws IOException {
+        Message message = new Message();
+        for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            MessageField field = MessageField.forJsonName(parser.currentName());
+            parser.nextToken();
+            if (field == null || !fields.contains(field)) {
+                parser.skipChildren();
+                continue;
+            }
+            switch (field) {
+                case ID -> message.setID(text());
+                case TYPE -> message.setType(text());
+                case TIMESTAMP -> message.setTimestamp(text());
+                case TIMESTAMP_EDITED -> message.setTimestampEdited(text());
+                case CALL_ENDED_TIMESTAMP -> message.setCallEndedTimestamp(text());
+                case IS_PINNED -> message.setIsPinned(parser.getValueAsBoolean());
+                case CONTENT -> message.setContent(text());
+                case AUTHOR -> message.setAuthor(parser.readValueAs(MessageAuthor.class));
+                case ATTACHMENTS -> message.setAttachments(parser.readValueAs(Attachment[].class));
+                case EMBEDS -> message.setEmbeds(parser.readValueAs(Embed[].class));
+                case STICKERS -> message.setStickers(parser.readValueAs(Sticker[].class));
+                case REACTIONS -> message.setReactions(parser.readValueAs(Reaction[].class));
+                case MENTIONS -> message.setMentions(parser.readValueAs(Mention[].class));
+                case INLINE_EMOJIS -> message.setInlineEmojis(parser.readValueAs(MessageInlineEmoji[].class));
+                case REFERENCE -> message.setReference(parser.readValueAs(Reference.class));
+            }
+        }
+        return message;
+    }
+
+    private String text() throws IOException {
+        if (parser.currentToken().isStructStart()) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getValueAsString();
+    }
+
+    private void readHeaderFields() throws IOException {
+        for (JsonToken token = parser.nextToken(); token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "guild" -> header.setGuild(parser.readValueAs(Guild.class));
+                case "channel" -> header.setChannel(parser.readValueAs(Channel.class));
+                case "dateRange" -> header.setDateRange(parser.readValueAs(DateRange.class));
+                case "exportedAt" -> header.setExportedAt(parser.getValueAsString());
+                case "messageCount" -> header.setMessageCount(parser.getValueAsLong());
+                case "messages" -> {
+                    if (value == JsonToken.START_ARRAY) {
+                        inMessages = true;
+                        return;
+                    }
+                    parser.skipChildren();
+                }
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
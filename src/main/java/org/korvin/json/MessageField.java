@@ -0,0 +1,61 @@
+package org.korvin.json;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Top-level properties of a {@link Message}. A {@link DiscordStreamReader} opened with a subset binds only those
+ * properties and skips the JSON subtrees of all others without materialising them.
+ */
+public enum MessageField {
+    ID("id"),
+    TYPE("type"),
+    TIMESTAMP("timestamp"),
+    TIMESTAMP_EDITED("timestampEdited"),
+    CALL_ENDED_TIMESTAMP("callEndedTimestamp"),
+    IS_PINNED("isPinned"),
+    CONTENT("content"),
+    AUTHOR("author"),
+    ATTACHMENTS("attachments"),
+    EMBEDS("embeds"),
+    STICKERS("stickers"),
+    REACTIONS("reactions"),
+    MENTIONS("mentions"),
+    INLINE_EMOJIS("inlineEmojis"),
+    REFERENCE("reference");
+
+    private final String jsonName;
+
+    MessageField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String jsonName() {
+        return jsonName;
+    }
+
+    public static Set<MessageField> all() {
+        return EnumSet.allOf(MessageField.class);
+    }
+
+    static MessageField forJsonName(String name) {
+        return switch (name) {
+            case "id" -> ID;
+            case "type" -> TYPE;
+            case "timestamp" -> TIMESTAMP;
+            case "timestampEdited" -> TIMESTAMP_EDITED;
+            case "callEndedTimestamp" -> CALL_ENDED_TIMESTAMP;
+            case "isPinned" -> IS_PINNED;
+            case "content" -> CONTENT;
+            case "author" -> AUTHOR;
+            case "attachments" -> ATTACHMENTS;
+            case "embeds" -> EMBEDS;
+            case "stickers" -> STICKERS;
+            case "reactions" -> REACTIONS;
+            case "mentions" -> MENTIONS;
+            case "inlineEmojis" -> INLINE_EMOJIS;
+            case "reference" -> REFERENCE;
+            default -> null;
+        };
+    }
+}
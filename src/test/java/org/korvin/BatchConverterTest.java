@@ -0,0 +1,37 @@
+package org.korvin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BatchConverterTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void mirrorsLayoutAndIsolatesFailures() throws IOException {
+        Path input = tempDir.resolve("in");
+        Files.createDirectories(input.resolve("guild"));
+        Files.writeString(input.resolve("guild/general.json"), """
+                {"channel": {"id": "1", "name": "general"},
+                 "messages": [{"id": "1", "timestamp": "2025-10-01T00:00:00Z", "content": "Meaningful text"}]}
+                """, StandardCharsets.UTF_8);
+        Files.writeString(input.resolve("broken.json"), "{\"messages\": [", StandardCharsets.UTF_8);
+
+        BatchConverter.Summary summary = new BatchConverter(new DiscordMdExporter(), 2)
+                .convert(input, tempDir.resolve("out"));
+
+        assertEquals(2, summary.results().size());
+        assertEquals(1, summary.succeeded());
+        assertEquals(input.resolve("broken.json"), summary.failures().get(0).source());
+        assertTrue(Files.readString(tempDir.resolve("out/guild/general.md")).contains("Meaningful text"));
+    }
+}
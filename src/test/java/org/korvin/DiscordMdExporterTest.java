@@ -1,15 +1,31 @@
 package org.korvin;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.korvin.json.Attachment;
 import org.korvin.json.Channel;
 import org.korvin.json.Discord;
+import org.korvin.json.Emoji;
 import org.korvin.json.Message;
 import org.korvin.json.MessageAuthor;
+import org.korvin.json.Reaction;
 import org.korvin.json.Reference;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DiscordMdExporterTest {
@@ -45,6 +61,306 @@ class DiscordMdExporterTest {
         assertTrue(markdown.contains("Meaningful reply"), "Replies should stay intact");
     }
 
+    @Test
+    void quotesTheRepliedToMessage() {
+        Message original = message("100", "The checkerboard artifacts come from adv_loss", "2025-10-01T00:00:00Z");
+        Message reply = message("101", "Try a weaker discriminator", "2025-10-01T00:01:00Z");
+        Reference reference = new Reference();
+        reference.setMessageID("100");
+        reply.setReference(reference);
+
+        String markdown = exporter.toMarkdown(discordWithMessages(original, reply));
+
+        assertTrue(markdown.contains("|reply_to=" + messageId("100")), "Reply heading should link the target");
+        assertTrue(markdown.contains("> **Quote:**\" The checkerboard artifacts come from adv_loss\""),
+                "Reply context should quote the target message");
+    }
+
+    @Test
+    void rendersReactionsOnlyWhenEnabled() {
+        Message message = message("200", "Upscaled with the new checkpoint", "2025-10-01T00:00:00Z");
+        Emoji emoji = new Emoji();
+        emoji.setName("👍");
+        Reaction reaction = new Reaction();
+        reaction.setEmoji(emoji);
+        reaction.setCount(3);
+        message.setReactions(new Reaction[]{reaction});
+        Discord discord = discordWithMessages(message);
+
+        assertFalse(exporter.toMarkdown(discord).contains("- reactions:"), "Reactions are off by default");
+        assertTrue(new DiscordMdExporter(new RenderOptions(true)).toMarkdown(discord)
+                .contains("- reactions: \"👍\"=3\n"), "Enabled reactions should be listed under the message");
+    }
+
+    @Test
+    void formatsHeadingsAndAttachmentSizesIndependentlyOfTheLocale() {
+        Message message = message("300", "Attached the training logs", "2025-10-01T12:34:56Z");
+        message.setAttachments(new Attachment[]{
+                attachment("tiny.txt", 1023), attachment("logs.zip", 1536), attachment("frames.tar", 1_048_575),
+                attachment("weights.ckpt", 5L * 1024 * 1024 * 1024 + 52_429L * 1024)});
+        Locale defaultLocale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        String markdown;
+        try {
+            markdown = exporter.toMarkdown(discordWithMessages(message));
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+
+        assertTrue(markdown.contains("### " + messageId("300") + "|ts=2025-10-01 12:34|user=User 300\n"),
+                "Heading should hold the id hash, minute timestamp and author");
+        assertTrue(markdown.contains("- attachment: name=tiny.txt size=1023B\n"));
+        assertTrue(markdown.contains("- attachment: name=logs.zip size=1.5KB\n"));
+        assertTrue(markdown.contains("- attachment: name=frames.tar size=1024.0KB\n"), "Rounding stays in the unit");
+        assertTrue(markdown.contains("- attachment: name=weights.ckpt size=5.1GB\n"));
+    }
+
+    @Test
+    void rollsOutputByMonthAndMessageCount(@TempDir Path tempDir) throws IOException {
+        Discord discord = discordWithMessages(
+                message("1", "November checkpoint notes", "2025-11-30T23:30:00+01:00"),
+                message("2", "December run one", "2025-12-01T09:00:00+01:00"),
+                message("3", "December run two", "2025-12-02T09:00:00+01:00"),
+                message("4", "December run three", "2025-12-31T09:00:00+01:00"));
+
+        List<Path> files = exporter.writeMarkdown(exporter.toStore(discord), tempDir,
+                new SplitPolicy(SplitPolicy.Period.MONTH, 0, 2));
+
+        assertEquals(List.of("discord__channel-testing__2025-11-30__2025-11-30.md",
+                        "discord__channel-testing__2025-12-01__2025-12-02.md",
+                        "discord__channel-testing__2025-12-31__2025-12-31.md"),
+                files.stream().map(file -> file.getFileName().toString()).toList());
+        String december = Files.readString(files.get(1), StandardCharsets.UTF_8);
+        assertTrue(december.startsWith("---\nschema: chatlog-md-v1\n"), "Every file needs its own front matter");
+        assertTrue(december.contains("conversation_from: 2025-12-01\nconversation_to: 2025-12-02\n"), december);
+        assertTrue(december.contains("December run two") && !december.contains("December run three"), december);
+
+        String monolithic = exporter.toMarkdown(discord);
+        StringBuilder bodies = new StringBuilder();
+        for (Path file : files) {
+            bodies.append(body(Files.readString(file, StandardCharsets.UTF_8)));
+        }
+        assertEquals(body(monolithic), bodies.toString());
+        try (var leftovers = Files.list(tempDir)) {
+            assertEquals(3, leftovers.count(), "Temporary slice bodies must be removed");
+        }
+    }
+
+    @Test
+    void maxSizeLimitsWholeFilesIncludingTheirHead(@TempDir Path tempDir) throws IOException {
+        Message[] messages = new Message[20];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = message(String.valueOf(400 + i), "Evaluation batch " + i + " finished without regressions",
+                    "2025-10-01T10:%02d:00Z".formatted(i));
+        }
+        Discord discord = discordWithMessages(messages);
+
+        List<Path> files = exporter.writeMarkdown(exporter.toStore(discord), tempDir,
+                new SplitPolicy(SplitPolicy.Period.NONE, 1024, 0));
+
+        assertTrue(files.size() > 1, "The limit should roll the output");
+        StringBuilder bodies = new StringBuilder();
+        for (Path file : files) {
+            assertTrue(Files.size(file) <= 1024, file + " has " + Files.size(file) + " bytes");
+            bodies.append(body(Files.readString(file, StandardCharsets.UTF_8)));
+        }
+        assertEquals(body(exporter.toMarkdown(discord)), bodies.toString());
+    }
+
+    @Test
+    void numbersPartsOfOneDaySoThatListingsKeepMessageOrder(@TempDir Path tempDir) throws IOException {
+        Message[] messages = new Message[12];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = message(String.valueOf(500 + i), "Sweep " + i + " done",
+                    "2025-10-01T10:%02d:00Z".formatted(i));
+        }
+
+        List<Path> files = exporter.writeMarkdown(exporter.toStore(discordWithMessages(messages)), tempDir,
+                new SplitPolicy(SplitPolicy.Period.DAY, 0, 1));
+
+        assertEquals(12, files.size());
+        assertEquals("discord__channel-testing__2025-10-01__2025-10-01__012.md",
+                files.get(11).getFileName().toString());
+        try (var listing = Files.list(tempDir)) {
+            assertEquals(files, listing.sorted().toList());
+        }
+    }
+
+    @Test
+    void appendsOnlyNewMessagesAndQuotesRepliesFromState(@TempDir Path tempDir) throws IOException {
+        Message original = message("100", "The checkerboard artifacts come from adv_loss", "2025-10-01T10:00:00Z");
+        Message followUp = message("101", "Try a weaker discriminator", "2025-10-01T11:00:00Z");
+        Message reply = message("102", "Halving the adv_loss weight fixed it", "2025-10-03T09:00:00Z");
+        Reference reference = new Reference();
+        reference.setMessageID("100");
+        reply.setReference(reference);
+        Path destination = tempDir.resolve("channel.md");
+
+        exporter.appendMarkdown(exporter.toStore(exportedAt(discordWithMessages(original, followUp),
+                "2025-10-01T12:00:00Z")), destination);
+        exporter.appendMarkdown(exporter.toStore(exportedAt(discordWithMessages(followUp, reply),
+                "2025-10-03T12:00:00Z")), destination);
+
+        String expected = exporter.toMarkdown(exportedAt(discordWithMessages(original, followUp, reply),
+                "2025-10-03T12:00:00Z"));
+        assertEquals(expected, Files.readString(destination, StandardCharsets.UTF_8));
+        assertTrue(Files.exists(tempDir.resolve("channel.md.state")), "State should be kept next to the output");
+    }
+
+    @Test
+    void corruptOrTruncatedAppendStateMeansAFullRender(@TempDir Path tempDir) throws IOException {
+        Message original = message("100", "The checkerboard artifacts come from adv_loss", "2025-10-01T10:00:00Z");
+        Message reply = message("102", "Halving the adv_loss weight fixed it", "2025-10-03T09:00:00Z");
+        Discord later = exportedAt(discordWithMessages(reply), "2025-10-03T12:00:00Z");
+        Path destination = tempDir.resolve("channel.md");
+        Path stateFile = tempDir.resolve("channel.md.state");
+        exporter.appendMarkdown(exporter.toStore(discordWithMessages(original)), destination);
+        byte[] state = Files.readAllBytes(stateFile);
+
+        byte[] garbage = state.clone();
+        Arrays.fill(garbage, 10, 16, (byte) 0xFF);
+        for (byte[] corrupt : List.of(garbage, Arrays.copyOf(state, state.length / 2), new byte[]{1, 2, 3})) {
+            Files.write(stateFile, corrupt);
+            exporter.appendMarkdown(exporter.toStore(later), destination);
+            assertEquals(exporter.toMarkdown(later), Files.readString(destination, StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void appendContinuesTheLastRollingFile(@TempDir Path tempDir) throws IOException {
+        Message first = message("1", "Day one, first run", "2025-10-01T09:00:00Z");
+        Message second = message("2", "Day one, second run", "2025-10-01T18:00:00Z");
+        Message third = message("3", "Day two, second run", "2025-10-02T09:00:00Z");
+        SplitPolicy daily = new SplitPolicy(SplitPolicy.Period.DAY, 0, 0);
+        Path output = tempDir.resolve("channel");
+
+        exporter.appendMarkdown(exporter.toStore(discordWithMessages(first)), output, daily);
+        List<Path> files = exporter.appendMarkdown(exporter.toStore(discordWithMessages(first, second, third)),
+                output, daily);
+
+        assertEquals(List.of("discord__channel-testing__2025-10-01__2025-10-01.md",
+                        "discord__channel-testing__2025-10-02__2025-10-02.md"),
+                files.stream().map(file -> file.getFileName().toString()).toList());
+        String dayOne = Files.readString(files.get(0), StandardCharsets.UTF_8);
+        assertTrue(dayOne.indexOf("Day one, first run") < dayOne.indexOf("Day one, second run"), dayOne);
+        assertEquals(1, dayOne.split("schema: chatlog-md-v1", -1).length - 1, "The continued file keeps one head");
+        try (var written = Files.list(output)) {
+            assertEquals(2, written.count());
+        }
+    }
+
+    @Test
+    void parallelRenderingIsIdenticalToSequential() throws IOException {
+        Message[] messages = new Message[5_000];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = message(Integer.toString(1_000 + i), "Message number " + i + (i % 7 == 0 ? "" : " with notes"),
+                    OffsetDateTime.parse("2025-10-01T00:00:00Z").plusMinutes(i).toString());
+            if (i % 5 == 4) {
+                Reference reference = new Reference();
+                reference.setMessageID(Integer.toString(1_000 + i / 2));
+                messages[i].setReference(reference);
+            }
+        }
+        MessageStore store = exporter.toStore(discordWithMessages(messages));
+
+        StringWriter sequential = new StringWriter();
+        exporter.writeMarkdown(store, sequential);
+        StringWriter parallel = new StringWriter();
+        exporter.writeMarkdown(store, parallel, 4);
+
+        assertEquals(sequential.toString(), parallel.toString());
+    }
+
+    @Test
+    void pipelinedReadingMatchesSequentialReading(@TempDir Path tempDir) throws IOException {
+        StringBuilder json = new StringBuilder("{\"channel\": {\"id\": \"1\", \"name\": \"pipeline\"}, \"messages\": [");
+        for (int i = 0; i < 2_000; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\": \"").append(5_000 + i)
+                    .append("\", \"timestamp\": \"2025-10-01T00:00:00Z\", \"content\": \"Step ").append(i)
+                    .append(" of the pipeline\"")
+                    .append(i % 3 == 2 ? ", \"reference\": {\"messageId\": \"" + (5_000 + i - 2) + "\"}" : "")
+                    .append(i % 100 == 7 ? ", \"author\": {\"name\": \"ci\", \"isBot\": true}" : "")
+                    .append('}');
+        }
+        Path source = Files.writeString(tempDir.resolve("pipeline.json"), json.append("]}"), StandardCharsets.UTF_8);
+
+        MessageStore sequentialStore = exporter.readMessages(source);
+        StringWriter sequential = new StringWriter();
+        exporter.writeMarkdown(sequentialStore, sequential);
+        MessageStore pipelinedStore = exporter.readMessages(source, 3);
+        StringWriter pipelined = new StringWriter();
+        exporter.writeMarkdown(pipelinedStore, pipelined);
+
+        assertEquals(sequential.toString(), pipelined.toString());
+        assertEquals(1_980, sequentialStore.size(), "Bot messages are not stored");
+        assertEquals(2_000, sequentialStore.parsedMessages());
+        assertEquals(2_000, pipelinedStore.parsedMessages());
+        Path truncated = Files.writeString(tempDir.resolve("truncated.json"), json.substring(0, json.length() / 2));
+        assertThrows(IOException.class, () -> exporter.readMessages(truncated, 3));
+    }
+
+    @Test
+    void pipelinedReadingFailsInsteadOfHangingWhenIngestionFails(@TempDir Path tempDir) throws IOException {
+        StringBuilder json = new StringBuilder("{\"channel\": {\"id\": \"1\", \"name\": \"pipeline\"}, \"messages\": [");
+        for (int i = 0; i < 20_000; i++) {
+            json.append(i == 0 ? "" : ",").append(i != 5_000
+                    ? messageJson(String.valueOf(10_000 + i), "2025-10-01T00:00:00Z", "Queued work " + i)
+                    : "{\"id\": \"1\", \"timestamp\": \"2025-10-01T00:00:00Z\", \"content\": \"Unnamed upload\","
+                    + " \"attachments\": [{\"fileSizeBytes\": 10}]}");
+        }
+        Path source = Files.writeString(tempDir.resolve("failing.json"), json.append("]}"), StandardCharsets.UTF_8);
+
+        assertTimeoutPreemptively(Duration.ofSeconds(60),
+                () -> assertThrows(RuntimeException.class, () -> exporter.readMessages(source, 2)));
+    }
+
+    @Test
+    void mergesOverlappingExportsIntoOneTimeline(@TempDir Path tempDir) throws IOException {
+        String first = messageJson("1001", "2025-10-01T10:00:00Z", "Baseline run finished");
+        String second = messageJson("1002", "2025-10-02T10:00:00Z", "Loss spiked after step 4000");
+        String third = messageJson("1003", "2025-10-03T10:00:00Z", "Lowered the learning rate");
+        String fourth = messageJson("1004", "2025-10-04T10:00:00Z", "Stable since then");
+        Path early = exportJson(tempDir.resolve("early.json"), "2025-10-01T00:00:00Z", "2025-10-03T12:00:00Z",
+                "2025-10-03T12:00:00Z", first, second, third);
+        Path late = exportJson(tempDir.resolve("late.json"), "2025-10-02T00:00:00Z", "2025-10-05T00:00:00Z",
+                "2025-10-05T00:00:00Z", second, third, fourth);
+        Path whole = exportJson(tempDir.resolve("whole.json"), "2025-10-01T00:00:00Z", "2025-10-05T00:00:00Z",
+                "2025-10-05T00:00:00Z", first, second, third, fourth);
+
+        MessageStore mergedStore = exporter.mergeMessages(List.of(late, early));
+        StringWriter merged = new StringWriter();
+        exporter.writeMarkdown(mergedStore, merged);
+        StringWriter expected = new StringWriter();
+        exporter.writeMarkdown(exporter.readMessages(whole), expected);
+
+        assertEquals(expected.toString(), merged.toString());
+        assertEquals(6, mergedStore.parsedMessages(), "Duplicates count as parsed");
+        Path otherChannel = Files.writeString(tempDir.resolve("other.json"),
+                "{\"channel\": {\"id\": \"other\", \"name\": \"other\"}, \"messages\": [" + first + "]}");
+        assertThrows(IOException.class, () -> exporter.mergeMessages(List.of(early, otherChannel)));
+    }
+
+    private static String messageJson(String id, String timestamp, String content) {
+        return "{\"id\": \"" + id + "\", \"timestamp\": \"" + timestamp + "\", \"content\": \"" + content + "\"}";
+    }
+
+    private static Path exportJson(Path file, String after, String before, String exportedAt, String... messages)
+            throws IOException {
+        return Files.writeString(file, "{\"channel\": {\"id\": \"channel-1\", \"name\": \"testing\"},"
+                + " \"dateRange\": {\"after\": \"" + after + "\", \"before\": \"" + before + "\"},"
+                + " \"exportedAt\": \"" + exportedAt + "\", \"messages\": [" + String.join(",", messages) + "]}",
+                StandardCharsets.UTF_8);
+    }
+
+    private static Discord exportedAt(Discord discord, String exportedAt) {
+        discord.setExportedAt(exportedAt);
+        return discord;
+    }
+
+    private static String body(String markdown) {
+        return markdown.substring(markdown.indexOf("\n\n", markdown.indexOf("**Date range:**")) + 2);
+    }
+
     private Discord discordWithMessages(Message... messages) {
         Discord discord = new Discord();
         Channel channel = new Channel();
@@ -68,6 +384,13 @@ class DiscordMdExporterTest {
         return message;
     }
 
+    private static Attachment attachment(String fileName, long sizeBytes) {
+        Attachment attachment = new Attachment();
+        attachment.setFileName(fileName);
+        attachment.setFileSizeBytes(sizeBytes);
+        return attachment;
+    }
+
     private String messageId(String rawId) {
         return "m:" + Integer.toHexString(rawId.hashCode());
     }
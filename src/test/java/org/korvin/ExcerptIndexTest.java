@@ -0,0 +1,70 @@
+package org.korvin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExcerptIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void roundTripsThroughTheMappedFile() throws IOException {
+        Path file = tempDir.resolve("replies" + ExcerptIndex.EXTENSION);
+        ExcerptIndex.write(Map.of(ExcerptIndex.key("1430000000000000002"), "Ünïcode excerpt",
+                ExcerptIndex.key("1430000000000000001"), "first", ExcerptIndex.key("fixture-id"), "hand-written"), file);
+
+        ExcerptIndex index = ExcerptIndex.load(file);
+
+        assertEquals(3, index.size());
+        assertEquals("first", index.excerpt("1430000000000000001"));
+        assertEquals("Ünïcode excerpt", index.excerpt("1430000000000000002"));
+        assertEquals("hand-written", index.excerpt("fixture-id"));
+        assertNull(index.excerpt("1430000000000000003"));
+        assertNull(ExcerptIndex.EMPTY.excerpt("1"));
+    }
+
+    @Test
+    void rejectsForeignFiles() throws IOException {
+        Path file = Files.writeString(tempDir.resolve("other.rxi"), "not an index");
+
+        assertThrows(IOException.class, () -> ExcerptIndex.load(file));
+    }
+
+    @Test
+    void quotesRepliesToMessagesOfEarlierExports() throws IOException {
+        Path september = Files.writeString(tempDir.resolve("september.json"), """
+                {"channel": {"id": "1", "name": "upscaling"},
+                 "messages": [
+                  {"id": "1001", "timestamp": "2025-09-30T10:00:00Z", "content": "Checkerboard artifacts come from adv_loss"},
+                  {"id": "1002", "timestamp": "2025-09-30T11:00:00Z", "content": "Nobody replies to this one"}]}
+                """, StandardCharsets.UTF_8);
+        Path october = Files.writeString(tempDir.resolve("october.json"), """
+                {"channel": {"id": "1", "name": "upscaling"},
+                 "messages": [
+                  {"id": "2001", "timestamp": "2025-10-01T09:00:00Z", "content": "Halving the weight fixed it",
+                   "reference": {"messageId": "1001"}}]}
+                """, StandardCharsets.UTF_8);
+
+        ExcerptIndex index = new DiscordMdExporter()
+                .writeExcerptIndex(List.of(september, october), tempDir.resolve("upscaling.rxi"));
+        Path markdown = tempDir.resolve("october.md");
+        DiscordMdExporter exporter = new DiscordMdExporter(RenderOptions.DEFAULT, index);
+        exporter.writeMarkdown(exporter.readMessages(october), markdown);
+
+        assertEquals(1, index.size(), "Only reply targets are indexed");
+        assertTrue(Files.readString(markdown).contains("> **Quote:**\" Checkerboard artifacts come from adv_loss\""));
+    }
+}
@@ -0,0 +1,128 @@
+package org.korvin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.korvin.collect.SpaceSaving;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageFrequencyAnalyzerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void parallelCountsMatchSequentialCounts() throws IOException {
+        writeExports();
+
+        Map<String, Integer> sequential = new MessageFrequencyAnalyzer(new DiscordMdExporter(), 1)
+                .countLongMessages(tempDir);
+        Map<String, Integer> parallel = new MessageFrequencyAnalyzer(new DiscordMdExporter(), 4)
+                .countLongMessages(tempDir);
+
+        assertEquals(sequential, parallel);
+        assertEquals(13, parallel.size());
+        assertEquals(600, parallel.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    private void writeExports() throws IOException {
+        for (int file = 0; file < 12; file++) {
+            StringBuilder messages = new StringBuilder();
+            for (int i = 0; i < 50; i++) {
+                messages.append(i == 0 ? "" : ",")
+                        .append("{\"id\": \"").append(i).append("\", \"content\": \" message ")
+                        .append((file * 7 + i) % 13).append(" \"}");
+            }
+            Path source = tempDir.resolve("part-" + (file % 3)).resolve("export-" + file + ".json");
+            Files.createDirectories(source.getParent());
+            Files.writeString(source, "{\"messages\": [" + messages + "]}", StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void approximateTopMessagesMatchExactCountsWhenTheyFit() throws IOException {
+        writeExports();
+        MessageFrequencyAnalyzer analyzer = new MessageFrequencyAnalyzer(new DiscordMdExporter(), 3);
+
+        List<Map.Entry<String, Integer>> exact = analyzer.topMessages(tempDir);
+        List<SpaceSaving.Estimate<String>> approximate = analyzer.approximateTopMessages(tempDir, 0.05);
+
+        assertEquals(exact.size(), approximate.size());
+        for (int i = 0; i < exact.size(); i++) {
+            assertEquals(exact.get(i).getKey(), approximate.get(i).item());
+            assertEquals(exact.get(i).getValue().longValue(), approximate.get(i).count());
+            assertEquals(0, approximate.get(i).error());
+        }
+    }
+
+    @Test
+    void incrementalRunsOnlyParseNewAndChangedExports() throws IOException {
+        writeExports();
+        Path index = tempDir.resolve("index").resolve("frequency.idx");
+        MessageFrequencyAnalyzer analyzer = new MessageFrequencyAnalyzer(new DiscordMdExporter(), 3);
+        assertEquals(analyzer.countLongMessages(tempDir), analyzer.countLongMessages(tempDir, index));
+
+        Path unchanged = tempDir.resolve("part-0").resolve("export-0.json");
+        FileTime modified = Files.getLastModifiedTime(unchanged);
+        byte[] original = Files.readAllBytes(unchanged);
+        byte[] corrupted = original.clone();
+        corrupted[0] = '[';
+        Files.write(unchanged, corrupted);
+        Files.setLastModifiedTime(unchanged, modified);
+        Files.delete(tempDir.resolve("part-1").resolve("export-1.json"));
+        Files.writeString(tempDir.resolve("part-2").resolve("export-2.json"),
+                "{\"messages\": [{\"content\": \"brand new\"}]}", StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("new.json"), "{\"messages\": [{\"content\": \"brand new\"}]}",
+                StandardCharsets.UTF_8);
+
+        Map<String, Integer> incremental = analyzer.countLongMessages(tempDir, index);
+
+        Files.write(unchanged, original);
+        assertEquals(analyzer.countLongMessages(tempDir), incremental);
+        assertEquals(2, incremental.get("brand new"));
+        assertEquals(incremental, analyzer.countLongMessages(tempDir, index));
+    }
+
+    @Test
+    void rescansWhenTheIndexIsCorrupt() throws IOException {
+        writeExports();
+        Path index = tempDir.resolve("index").resolve("frequency.idx");
+        MessageFrequencyAnalyzer analyzer = new MessageFrequencyAnalyzer(new DiscordMdExporter(), 3);
+        Map<String, Integer> expected = analyzer.countLongMessages(tempDir, index);
+
+        byte[] written = Files.readAllBytes(index);
+        byte[] malformedKey = written.clone();
+        Arrays.fill(malformedKey, 18, Math.min(written.length, 24), (byte) 0xFF);
+        byte[] negativeCount = written.clone();
+        int firstKeyLength = ((written[16] & 0xFF) << 8) | (written[17] & 0xFF);
+        Arrays.fill(negativeCount, 18 + firstKeyLength + 48, 18 + firstKeyLength + 52, (byte) 0xFF);
+
+        for (byte[] corrupted : List.of(malformedKey, negativeCount)) {
+            Files.write(index, corrupted);
+            assertEquals(expected, analyzer.countLongMessages(tempDir, index));
+            assertEquals(expected, analyzer.countLongMessages(tempDir, index));
+        }
+    }
+
+    @Test
+    void reportsTheFileThatFailedToParse() throws IOException {
+        Files.writeString(tempDir.resolve("good.json"), "{\"messages\": []}", StandardCharsets.UTF_8);
+        Files.writeString(tempDir.resolve("broken.json"), "{\"messages\": [", StandardCharsets.UTF_8);
+
+        IOException failure = assertThrows(IOException.class,
+                () -> new MessageFrequencyAnalyzer(new DiscordMdExporter(), 2).countLongMessages(tempDir));
+
+        assertTrue(failure.getMessage().contains("broken.json"), failure.getMessage());
+    }
+}
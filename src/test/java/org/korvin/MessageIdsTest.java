@@ -0,0 +1,34 @@
+package org.korvin;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class MessageIdsTest {
+
+    @Test
+    void keysKeepTheOriginalStringHash() {
+        MessageIds ids = new MessageIds();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 10_000; i++) {
+            String snowflake = Long.toString(random.nextLong(Long.MAX_VALUE));
+            assertEquals(snowflake.hashCode(), ids.hash(ids.key(snowflake)));
+        }
+        for (String other : new String[]{"keep-me", "0123", "", "99999999999999999999", "0"}) {
+            assertEquals(other.hashCode(), ids.hash(ids.key(other)), other);
+        }
+        assertEquals("unknown".hashCode(), ids.hash(ids.key(null)));
+    }
+
+    @Test
+    void distinguishesNumericAndOtherIds() {
+        MessageIds ids = new MessageIds();
+        assertEquals(1133557799L, ids.key("1133557799"));
+        assertEquals(ids.key("keep-me"), ids.key("keep-me"));
+        assertNotEquals(ids.key("keep-me"), ids.key("skip-me"));
+        assertNotEquals(ids.key("0123"), ids.key("123"));
+    }
+}
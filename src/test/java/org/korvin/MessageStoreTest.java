@@ -0,0 +1,84 @@
+package org.korvin;
+
+import org.junit.jupiter.api.Test;
+import org.korvin.json.Discord;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MessageStoreTest {
+
+    @Test
+    void sealOrdersByTimestampAndResolvesReplies() {
+        MessageStore store = new MessageStore(new Discord());
+        MessageIds ids = store.ids();
+        add(store, "3", "2024-01-01T00:00:03Z", "ann", null, "third");
+        add(store, "9", "not a timestamp", "bob", null, "broken");
+        add(store, "1", "2024-01-01T00:00:01Z", "ann", "3", "first");
+        add(store, "2", "2024-01-01T00:00:01Z", "cid", "404", "second");
+        store.seal();
+
+        assertEquals(List.of("first", "second", "third", "broken"),
+                List.of(content(store, 0), content(store, 1), content(store, 2), content(store, 3)));
+        int first = store.row(0);
+        assertEquals(0, store.replyTargetRow(first));
+        assertTrue(store.isReferenced(0));
+        assertEquals(-1, store.replyTargetRow(store.row(1)));
+        assertFalse(store.isReferenced(first));
+        assertEquals(ids.key("404"), store.replyTargetId(store.row(1)));
+        assertEquals("not a timestamp", store.rawTimestamp(store.row(3)));
+        assertEquals("ann", store.author(first));
+    }
+
+    @Test
+    void sortsConcatenatedExportsStablyAndKeepsOrderedOnesAsIs() {
+        MessageStore ordered = new MessageStore(new Discord());
+        add(ordered, "1", "2024-01-01T00:00:01Z", "ann", null, "a");
+        add(ordered, "2", "2024-01-01T00:00:01Z", "ann", null, "b");
+        add(ordered, "3", "not a timestamp", "ann", null, "c");
+        ordered.seal();
+        assertEquals(List.of(0, 1, 2), List.of(ordered.row(0), ordered.row(1), ordered.row(2)));
+
+        MessageStore concatenated = new MessageStore(new Discord());
+        String[] times = {"05", "07", "09", "01", "05", "08", "02", "03"};
+        for (int i = 0; i < times.length; i++) {
+            add(concatenated, Integer.toString(i), "2024-01-01T00:00:" + times[i] + "Z", "ann", null, "m" + i);
+        }
+        concatenated.seal();
+
+        List<String> sorted = new ArrayList<>();
+        for (int position = 0; position < concatenated.size(); position++) {
+            sorted.add(content(concatenated, position));
+        }
+        assertEquals(List.of("m3", "m6", "m7", "m0", "m4", "m1", "m5", "m2"), sorted);
+    }
+
+    @Test
+    void keepsAttachmentsPerRow() {
+        MessageStore store = new MessageStore(new Discord());
+        MessageStore.StoredAttachment log = new MessageStore.StoredAttachment("a.log", 10, "u");
+        store.add(1, Timestamps.INVALID, null, "ann", MessageIds.NONE, "", false, List.of());
+        store.add(2, Timestamps.INVALID, null, "ann", MessageIds.NONE, "x".repeat(300_000), true, List.of(log));
+
+        assertTrue(store.attachments(0).isEmpty());
+        assertFalse(store.hasAttachments(0));
+        assertEquals(List.of(log), store.attachments(1));
+        assertEquals(300_000, store.content(1).length());
+        assertEquals("", store.content(0));
+    }
+
+    private static void add(MessageStore store, String id, String timestamp, String author, String replyTo,
+                            String content) {
+        MessageIds ids = store.ids();
+        store.add(ids.key(id), Timestamps.parse(timestamp), timestamp, author,
+                replyTo == null ? MessageIds.NONE : ids.key(replyTo), content, true, List.of());
+    }
+
+    private static String content(MessageStore store, int position) {
+        return store.content(store.row(position));
+    }
+}
@@ -0,0 +1,42 @@
+package org.korvin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PhraseMinerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void ranksWholeShortMessagesFirstAndSkipsKnownTerms() throws IOException {
+        Files.writeString(tempDir.resolve("export.json"), """
+                {"messages": [
+                  {"content": "Sounds  good"}, {"content": "sounds good"}, {"content": "sounds good to me"},
+                  {"content": "THANKS!"}, {"content": "thanks!"}, {"content": "thanks! that fixed the loss"},
+                  {"content": "the loss spikes"}, {"content": "the loss is flat"}, {"content": "lol"}
+                ]}
+                """, StandardCharsets.UTF_8);
+
+        List<PhraseMiner.Candidate> candidates = new MessageFrequencyAnalyzer(new DiscordMdExporter(), 2)
+                .minePhrases(tempDir, new PhraseMiner.Options(2, 16, 1_000, 2, 4), List.of("  LOL "));
+
+        assertEquals(List.of(
+                new PhraseMiner.Candidate("sounds good", 3, 2, 0),
+                new PhraseMiner.Candidate("thanks!", 3, 2, 0),
+                new PhraseMiner.Candidate("good", 3, 0, 0),
+                new PhraseMiner.Candidate("loss", 3, 0, 0)), candidates);
+
+        Path terms = tempDir.resolve("out").resolve("candidates.txt");
+        PhraseMiner.writeTerms(candidates, terms);
+        assertEquals(List.of("sounds good", "thanks!", "good", "loss"), PhraseMiner.readTerms(terms));
+    }
+}
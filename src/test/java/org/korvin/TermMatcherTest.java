@@ -0,0 +1,56 @@
+package org.korvin;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class TermMatcherTest {
+
+    private final TermMatcher matcher = TermMatcher.compile(List.of("ok", "lol", "lol yeah", ":)", "👍", "k"));
+
+    @Test
+    void removesTermsCaseInsensitivelyOnWordBoundaries() {
+        assertEquals(" fine  book", matcher.removeAll("OK fine lol book"));
+        assertEquals("token _ok", matcher.removeAll("token _ok"));
+    }
+
+    @Test
+    void prefersTheLongestTermAtTheLeftmostPosition() {
+        assertEquals(" then", matcher.removeAll("LOL yeah then"));
+    }
+
+    @Test
+    void matchesSymbolTermsWithoutBoundaries() {
+        assertEquals("nicegreat", matcher.removeAll("nice:)great👍"));
+    }
+
+    @Test
+    void returnsSameInstanceWhenNothingMatches() {
+        String content = "nothing to strip here";
+        assertSame(content, matcher.removeAll(content));
+    }
+
+    @Test
+    void compiledArtifactMatchesLikeTheTermList(@TempDir Path tempDir) throws IOException {
+        List<String> terms = List.of(" lol ", "OK", "ok", "", "lol yeah", ":)", "👍", "k", "Lol");
+        List<String> sorted = SortUtf8TextFile.sortTerms(terms);
+        Path artifact = tempDir.resolve("terms" + TermMatcher.ARTIFACT_EXTENSION);
+        TermMatcher.compile(sorted).write(artifact);
+
+        TermMatcher loaded = TermMatcher.load(artifact);
+
+        assertEquals(List.of("k", ":)", "OK", "👍", "Lol", "lol yeah"), sorted);
+        for (String content : List.of("OK fine lol book", "LOL yeah then", "nice:)great👍", "token _ok", "kk k")) {
+            assertEquals(matcher.removeAll(content), loaded.removeAll(content), content);
+        }
+        assertThrows(IOException.class, () -> TermMatcher.read(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5})));
+    }
+}
@@ -0,0 +1,40 @@
+package org.korvin;
+
+import org.junit.jupiter.api.Test;
+import org.korvin.json.Converter;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TimestampsTest {
+
+    private static final DateTimeFormatter HEADING = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    @Test
+    void fastPathAgreesWithJavaTime() {
+        for (String raw : new String[]{"2025-10-01T00:00:00Z", "2023-05-12T13:45:22.123+00:00",
+                "2024-02-29T23:59:59.9+05:30", "1999-12-31T23:30:00.123456789-08:00", "2024-12-31T23:59:59.999+01:00",
+                "1969-12-31T23:59:59.5Z"}) {
+            OffsetDateTime expected = OffsetDateTime.parse(raw);
+            long packed = Timestamps.parse(raw);
+            assertEquals(expected.toInstant().toEpochMilli(), Timestamps.epochMillis(packed), raw);
+            assertEquals(expected.getOffset(), Timestamps.toOffsetDateTime(packed).getOffset(), raw);
+            assertEquals(HEADING.format(expected), Timestamps.appendDateTime(new StringBuilder(), packed).toString());
+            assertEquals(expected.toLocalDate().toString(),
+                    Timestamps.appendLocalDate(new StringBuilder(), packed).toString());
+        }
+    }
+
+    @Test
+    void fallsBackForOtherShapesAndRejectsGarbage() {
+        assertEquals(Converter.parseDateTimeString("2025-10-01 12:30:00").toInstant().toEpochMilli(),
+                Timestamps.epochMillis(Timestamps.parse("2025-10-01 12:30:00")));
+        assertEquals(OffsetDateTime.parse("2025-10-01T12:30+02:00").toInstant().toEpochMilli(),
+                Timestamps.epochMillis(Timestamps.parse("2025-10-01T12:30+02:00")));
+        assertEquals(Timestamps.INVALID, Timestamps.parse("yesterday"));
+        assertEquals(Timestamps.INVALID, Timestamps.parse("2025-13-01T00:00:00Z"));
+        assertEquals(Timestamps.INVALID, Timestamps.parse(null));
+    }
+}
@@ -0,0 +1,44 @@
+package org.korvin.collect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LongIntHashMapTest {
+
+    @Test
+    void behavesLikeHashMapAcrossResizes() {
+        LongIntHashMap map = new LongIntHashMap();
+        LongHashSet set = new LongHashSet();
+        Map<Long, Integer> expected = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 50_000; i++) {
+            long key = random.nextInt(10) == 0 ? random.nextLong(100) : random.nextLong();
+            assertEquals(expected.putIfAbsent(key, i) == null, map.putIfAbsent(key, i));
+            assertEquals(expected.size() > set.size(), set.add(key));
+        }
+        assertEquals(expected.size(), map.size());
+        assertEquals(expected.size(), set.size());
+        expected.forEach((key, value) -> {
+            assertEquals(value, map.get(key, -1));
+            assertTrue(set.contains(key));
+        });
+    }
+
+    @Test
+    void supportsZeroKey() {
+        LongIntHashMap map = new LongIntHashMap();
+        assertEquals(-1, map.get(0L, -1));
+        map.put(0L, 5);
+        map.put(0L, 6);
+        assertFalse(map.putIfAbsent(0L, 7));
+        assertEquals(6, map.get(0L, -1));
+        assertEquals(1, map.size());
+    }
+}
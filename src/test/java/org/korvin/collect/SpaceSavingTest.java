@@ -0,0 +1,67 @@
+package org.korvin.collect;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    @Test
+    void isExactWhileDistinctItemsFit() {
+        SpaceSaving<String> summary = new SpaceSaving<>(4);
+        summary.offer("a", 3);
+        summary.offer("b");
+        summary.offer("a");
+        summary.offer("c", 2);
+
+        assertEquals(0, summary.maxError());
+        assertEquals(Map.of("a", 4L, "b", 1L, "c", 2L), counts(summary.estimates()));
+        assertEquals(7, summary.totalWeight());
+    }
+
+    @Test
+    void boundsErrorAndKeepsHeavyHitters() {
+        SpaceSaving<Integer> summary = SpaceSaving.withMaxError(0.01);
+        Map<Integer, Long> exact = new HashMap<>();
+        SplittableRandom random = new SplittableRandom(11);
+        for (int i = 0; i < 200_000; i++) {
+            int item = random.nextInt(10) == 0 ? random.nextInt(5) : 5 + random.nextInt(50_000);
+            summary.offer(item);
+            exact.merge(item, 1L, Long::sum);
+        }
+
+        long bound = summary.totalWeight() / summary.capacity();
+        assertEquals(100, summary.capacity());
+        assertTrue(summary.maxError() <= bound, "min counter " + summary.maxError() + " > " + bound);
+        Map<Integer, Long> estimated = counts(summary.estimates());
+        for (SpaceSaving.Estimate<Integer> estimate : summary.estimates()) {
+            long actual = exact.get(estimate.item());
+            assertTrue(estimate.guaranteedCount() <= actual && actual <= estimate.count(), estimate.toString());
+        }
+        exact.forEach((item, count) -> {
+            if (count > bound) {
+                assertTrue(estimated.containsKey(item), "heavy hitter " + item + " was evicted");
+            }
+        });
+    }
+
+    @Test
+    void rejectsErrorBoundsBeyondTheCounterLimit() {
+        assertThrows(IllegalArgumentException.class, () -> SpaceSaving.withMaxError(1e-10));
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving<>(SpaceSaving.MAX_CAPACITY + 1));
+        assertEquals(1 << 20, SpaceSaving.withMaxError(1.0 / (1 << 20)).capacity());
+    }
+
+    private static <T> Map<T, Long> counts(List<SpaceSaving.Estimate<T>> estimates) {
+        Map<T, Long> counts = new HashMap<>();
+        estimates.forEach(estimate -> counts.put(estimate.item(), estimate.count()));
+        return counts;
+    }
+}
@@ -0,0 +1,44 @@
+package org.korvin.json;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContentScannerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reportsOnlyTopLevelMessageContent() throws IOException {
+        Path source = tempDir.resolve("export.json");
+        Files.writeString(source, """
+                {
+                  "channel": {"name": "general", "content": "channel"},
+                  "content": "root",
+                  "messages": [
+                    {"id": "1", "content": " first ", "embeds": [{"content": "embed", "fields": [{"value": "x"}]}]},
+                    {"id": "2", "content": null, "reactions": [{"users": [{"content": "user"}]}]},
+                    {"id": "3", "author": {"content": "author"}, "content": "ünïcødé 👍"},
+                    {"id": "4", "content": 42}
+                  ],
+                  "messageCount": 4
+                }
+                """, StandardCharsets.UTF_8);
+
+        List<String> contents = new ArrayList<>();
+        long messages = ContentScanner.scan(source,
+                (buffer, offset, length) -> contents.add(new String(buffer, offset, length)));
+
+        assertEquals(4, messages);
+        assertEquals(List.of(" first ", "ünïcødé 👍", "42"), contents);
+    }
+}
@@ -0,0 +1,87 @@
+package org.korvin.json;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class DiscordStreamReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void readsHeaderUpFrontAndMessagesOneByOne() throws IOException {
+        Path source = tempDir.resolve("export.json");
+        Files.writeString(source, """
+                {
+                  "guild": {"id": "1", "name": "Guild"},
+                  "channel": {"id": "2", "name": "general", "topic": null},
+                  "dateRange": {"after": null, "before": null},
+                  "exportedAt": "2025-10-02T10:00:00+00:00",
+                  "messages": [
+                    {"id": "10", "content": "first", "reactions": [{"count": 2}], "author": {"name": "a"}},
+                    {"id": "11", "content": "second", "reference": {"messageId": "10"}}
+                  ],
+                  "messageCount": 2
+                }
+                """, StandardCharsets.UTF_8);
+
+        try (DiscordStreamReader reader = DiscordStreamReader.open(source)) {
+            assertEquals("general", reader.header().getChannel().getName());
+            assertEquals("Guild", reader.header().getGuild().getName());
+            assertEquals("2025-10-02T10:00:00+00:00", reader.header().getExportedAt());
+
+            List<Message> messages = new ArrayList<>();
+            assertEquals(2, reader.forEachMessage(messages::add));
+            assertEquals("first", messages.get(0).getContent());
+            assertEquals("10", messages.get(1).getReference().getMessageID());
+            assertNull(reader.next());
+            assertEquals(2, reader.header().getMessageCount());
+        }
+    }
+
+    @Test
+    void projectionSkipsUnselectedMessageProperties() throws IOException {
+        Path source = tempDir.resolve("projected.json");
+        Files.writeString(source, """
+                {
+                  "channel": {"name": "general"},
+                  "messages": [
+                    {"id": "10", "isPinned": true, "content": "first",
+                     "reactions": [{"count": 2, "users": [{"name": "a"}, {"name": "b"}]}],
+                     "embeds": [{"title": "x", "fields": [{"name": "n"}]}], "author": {"name": "a", "isBot": true}},
+                    {"id": 11, "content": null, "reference": {"messageId": "10"}, "unknown": {"nested": [1, 2]}}
+                  ],
+                  "messageCount": 2
+                }
+                """, StandardCharsets.UTF_8);
+
+        try (DiscordStreamReader reader = DiscordStreamReader.open(source,
+                EnumSet.of(MessageField.ID, MessageField.CONTENT, MessageField.AUTHOR, MessageField.REFERENCE))) {
+            List<Message> messages = new ArrayList<>();
+            assertEquals(2, reader.forEachMessage(messages::add));
+            Message first = messages.get(0);
+            assertEquals("10", first.getID());
+            assertEquals("first", first.getContent());
+            assertEquals("a", first.getAuthor().getName());
+            assertNull(first.getReactions());
+            assertNull(first.getEmbeds());
+            assertFalse(first.getIsPinned());
+            assertEquals("11", messages.get(1).getID());
+            assertNull(messages.get(1).getContent());
+            assertEquals("10", messages.get(1).getReference().getMessageID());
+            assertEquals(2, reader.header().getMessageCount());
+        }
+    }
+}